@@ -122,4 +122,11 @@ for database_url_variable in $(env | awk -F "=" '{print $1}' | grep "HEROKU_POST
   set_jdbc_url "$(eval echo "\$${database_url_variable}")" "${database_url_variable//_URL/}_JDBC"
 done
 
-java -XX:+UseContainerSupport -Xmx256m -Xss512k -XX:MetaspaceSize=100m -jar /app/app.jar
\ No newline at end of file
+# The archive is written by the image build; the JVM ignores it silently if it no longer matches the classpath
+cds_options=()
+if [[ -f /app/app.jsa ]]; then
+  cds_options=(-XX:SharedArchiveFile=/app/app.jsa -Xshare:auto)
+fi
+
+exec java -XX:+UseContainerSupport -Xmx256m -Xss512k -XX:MetaspaceSize=100m "${cds_options[@]}" \
+  @/app/classpath.args com.example.dockerjwt.DockerJwtApplication
\ No newline at end of file
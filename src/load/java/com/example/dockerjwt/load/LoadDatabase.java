@@ -0,0 +1,38 @@
+package com.example.dockerjwt.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// One embedded Postgres per JVM, shared by every load suite; -Dload.embedded-db=false uses spring.datasource instead
+final class LoadDatabase {
+    private static EmbeddedPostgres postgres;
+
+    private LoadDatabase() {
+    }
+
+    static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("load.embedded-db", "true"));
+    }
+
+    static synchronized String jdbcUrl() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Embedded Postgres did not start", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(LoadDatabase::close, "embedded-postgres-shutdown"));
+        }
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    private static synchronized void close() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.dockerjwt.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Starts operations on a fixed schedule whether or not earlier ones have finished, and measures each latency
+// from its scheduled start, so a stalled server shows up as queueing delay instead of a lower request rate.
+@Slf4j
+final class OpenLoopDriver {
+    static final int SKIPPED = 0;
+    static final int FAILED = -1;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(1);
+    private static final long SAMPLE_MILLIS = 100;
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    interface Operation {
+        // Completes with the response status, or SKIPPED when there was nothing to act on
+        CompletableFuture<Integer> start();
+    }
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private int totalWeight;
+
+    OpenLoopDriver add(String name, int weight, Operation operation) {
+        if (weight > 0) {
+            operations.put(name, operation);
+            weights.put(name, weight);
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    Report run(double ratePerSecond, Duration duration, int maxInFlight) throws InterruptedException {
+        Report report = new Report(operations.keySet());
+        AtomicInteger inFlight = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        report.resources.baseline();
+        sampler.scheduleAtFixedRate(() -> report.resources.sample(inFlight.get()), 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long intended = start; intended < end; intended += interval) {
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            String name = pick();
+            Stats stats = report.stats.get(name);
+            if (inFlight.get() >= maxInFlight) {
+                stats.dropped.increment();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long scheduledAt = intended;
+            start(operations.get(name)).whenComplete((status, error) -> {
+                stats.record(error == null ? status : FAILED, System.nanoTime() - scheduledAt);
+                inFlight.decrementAndGet();
+            });
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        sampler.shutdownNow();
+        return report;
+    }
+
+    private static CompletableFuture<Integer> start(Operation operation) {
+        try {
+            return operation.start();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("No operations");
+    }
+
+    static final class Report {
+        private final Map<String, Stats> stats = new LinkedHashMap<>();
+        private final Resources resources = new Resources();
+        private long elapsedNanos;
+
+        private Report(Iterable<String> names) {
+            for (String name : names) {
+                stats.put(name, new Stats());
+            }
+        }
+
+        // Responses other than the expected status, 503 (load shed by the server) and SKIPPED
+        long unexpected(Map<String, Integer> expectedStatus) {
+            long unexpected = 0;
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                for (Map.Entry<Integer, Long> status : entry.getValue().statuses().entrySet()) {
+                    int code = status.getKey();
+                    if (code != expectedStatus.get(entry.getKey()) && code != 503 && code != SKIPPED) {
+                        unexpected += status.getValue();
+                    }
+                }
+            }
+            return unexpected;
+        }
+
+        long completed() {
+            long completed = 0;
+            for (Stats operation : stats.values()) {
+                completed += operation.latency.getTotalCount();
+            }
+            return completed;
+        }
+
+        void log(String title) {
+            double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+            Histogram total = new Histogram(3);
+            log.info("{}: {} completed in {}s", title, completed(), String.format("%.1f", seconds));
+            log.info(String.format("%-8s %8s %8s %9s %9s %9s %9s %8s  %s",
+                    "op", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "dropped", "statuses"));
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                Stats operation = entry.getValue();
+                total.add(operation.latency);
+                log.info(row(entry.getKey(), operation.latency, seconds, operation.dropped.sum(), operation.statuses()));
+            }
+            log.info(row("total", total, seconds, 0, Map.of()));
+            resources.log();
+        }
+
+        // Full percentile distributions in the HdrHistogram .hgrm format, values in milliseconds
+        void write(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                    entry.getValue().latency.outputPercentileDistribution(out, NANOS_PER_MILLI);
+                }
+            }
+        }
+
+        private static String row(String name, Histogram latency, double seconds, long dropped, Map<Integer, Long> statuses) {
+            return String.format("%-8s %8d %8.1f %9.2f %9.2f %9.2f %9.2f %8d  %s", name, latency.getTotalCount(),
+                    latency.getTotalCount() / seconds, millis(latency, 50), millis(latency, 99), millis(latency, 99.9),
+                    latency.getMaxValue() / NANOS_PER_MILLI, dropped, statuses);
+        }
+
+        private static double millis(Histogram latency, double percentile) {
+            return latency.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+        }
+    }
+
+    // Whole-JVM figures, load client included, so they compare server modes run with the same load settings
+    private static final class Resources {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private volatile long baselineRss;
+        private volatile int peakInFlight;
+        private volatile int peakThreads;
+        private volatile long peakHeap;
+        private volatile long peakRss;
+
+        private void baseline() {
+            baselineRss = residentBytes();
+        }
+
+        // Called from the single sampler thread only
+        private void sample(int inFlight) {
+            peakInFlight = Math.max(peakInFlight, inFlight);
+            peakThreads = Math.max(peakThreads, threads.getThreadCount());
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            peakRss = Math.max(peakRss, residentBytes());
+        }
+
+        private void log() {
+            long perRequest = peakInFlight == 0 || baselineRss < 0 ? -1 : (peakRss - baselineRss) / peakInFlight;
+            log.info("in flight peak {}, platform threads peak {}, heap peak {} MiB, RSS peak {} MiB, "
+                            + "RSS growth per in-flight request {} KiB", peakInFlight, peakThreads, mebibytes(peakHeap),
+                    mebibytes(peakRss), perRequest < 0 ? "n/a" : String.valueOf(perRequest / 1024));
+        }
+
+        private static long mebibytes(long bytes) {
+            return bytes < 0 ? -1 : bytes / (1024 * 1024);
+        }
+
+        // Linux only; elsewhere the RSS figures are reported as unavailable
+        private static long residentBytes() {
+            try {
+                List<String> lines = Files.readAllLines(PROC_STATUS);
+                for (String line : lines) {
+                    if (line.startsWith("VmRSS:")) {
+                        return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                return -1;
+            }
+            return -1;
+        }
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder dropped = new LongAdder();
+
+        private void record(int status, long latencyNanos) {
+            statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+            if (status != SKIPPED) {
+                latency.recordValue(latencyNanos);
+            }
+        }
+
+        private Map<Integer, Long> statuses() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
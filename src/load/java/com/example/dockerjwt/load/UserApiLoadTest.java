@@ -0,0 +1,216 @@
+package com.example.dockerjwt.load;
+
+import com.example.dockerjwt.AbstractControllerTest;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UserRepository;
+import com.example.dockerjwt.user.UserRole;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives a configurable mix of the user API over real HTTP, e.g.
+// mvn -Pload test -Dload.rate=100 -Dload.duration=PT1M -Dload.mix=login=10,me=80,signup=5,change=5
+// Requests run on separate threads and commit, so the base class's test transaction is switched off.
+@Tag("load")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserApiLoadTest extends AbstractControllerTest {
+    private static final String PASSWORD = "load-password-1";
+    private static final String OTHER_PASSWORD = "load-password-2";
+    private static final Map<String, Integer> EXPECTED_STATUS = Map.of("signup", 201, "login", 200, "me", 200, "change", 200);
+
+    private final double rate = Double.parseDouble(System.getProperty("load.rate", "50"));
+    private final Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private final String mix = System.getProperty("load.mix", "login=10,me=80,signup=5,change=5");
+    private final int users = Integer.getInteger("load.users", 500);
+    private final int maxInFlight = Integer.getInteger("load.max-in-flight", 5000);
+    private final double maxErrorRatio = Double.parseDouble(System.getProperty("load.max-error-ratio", "0.01"));
+
+    @LocalServerPort
+    private int port;
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JWTUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final AtomicLong signups = new AtomicLong();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private Account[] accounts;
+    private final Queue<Account> idleChurnAccounts = new ConcurrentLinkedQueue<>();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        // Every request comes from this one address
+        registry.add("security.login-limit.ip.capacity", () -> 1_000_000);
+        if (LoadDatabase.enabled()) {
+            registry.add("spring.datasource.url", LoadDatabase::jdbcUrl);
+            registry.add("spring.datasource.username", () -> "postgres");
+            registry.add("spring.datasource.password", () -> "postgres");
+        }
+    }
+
+    // Accounts are inserted directly with one shared hash, so seeding costs a single password hash
+    @BeforeEach
+    void seedAccounts() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        accounts = new Account[users];
+        for (int i = 0; i < users; i++) {
+            User user = userRepository.addUser(new User("load-" + runId + "-" + i + "@gmail.com", hash,
+                    UserRole.ROLE_USER.name())).orElseThrow();
+            accounts[i] = new Account(user.getEmail(), jwtUtil.generateToken(user));
+        }
+        for (int i = 0; i < users; i++) {
+            User user = userRepository.addUser(new User("churn-" + runId + "-" + i + "@gmail.com", hash,
+                    UserRole.ROLE_USER.name())).orElseThrow();
+            idleChurnAccounts.add(new Account(user.getEmail(), jwtUtil.generateToken(user)));
+        }
+    }
+
+    @Test
+    void userApiMix() throws Exception {
+        OpenLoopDriver driver = new OpenLoopDriver();
+        Map<String, Integer> weights = weights(mix);
+        driver.add("signup", weights.getOrDefault("signup", 0), this::signup)
+                .add("login", weights.getOrDefault("login", 0), this::login)
+                .add("me", weights.getOrDefault("me", 0), this::me)
+                .add("change", weights.getOrDefault("change", 0), this::changePassword);
+
+        driver.run(rate, warmup, maxInFlight).log("Warm-up at " + rate + " req/s");
+        OpenLoopDriver.Report report = driver.run(rate, duration, maxInFlight);
+        report.log("Measured at " + rate + " req/s, mix " + mix + ", " + (virtualThreads ? "virtual" : "platform")
+                + " request threads");
+        report.write(Path.of("target", "load", "user-api"));
+
+        assertTrue(report.completed() > 0, "No request completed");
+        long unexpected = report.unexpected(EXPECTED_STATUS);
+        assertTrue(unexpected <= report.completed() * maxErrorRatio,
+                unexpected + " unexpected responses out of " + report.completed());
+    }
+
+    private CompletableFuture<Integer> signup() {
+        String email = "signup-" + runId + "-" + signups.incrementAndGet() + "@gmail.com";
+        return send(post("/users/signup", loginRequest(email, PASSWORD)));
+    }
+
+    private CompletableFuture<Integer> login() {
+        return send(post("/users/login", loginRequest(randomAccount().email, PASSWORD)));
+    }
+
+    private CompletableFuture<Integer> me() {
+        return send(request("/users/me", randomAccount().accessToken).GET().build());
+    }
+
+    // Each churn account is changed by one request at a time, since a change revokes the token it was made with
+    private CompletableFuture<Integer> changePassword() {
+        Account account = idleChurnAccounts.poll();
+        if (account == null) {
+            return CompletableFuture.completedFuture(OpenLoopDriver.SKIPPED);
+        }
+        String newPassword = PASSWORD.equals(account.password) ? OTHER_PASSWORD : PASSWORD;
+        String body = "{\"oldPassword\":\"" + account.password + "\",\"newPassword\":\"" + newPassword + "\"}";
+        HttpRequest request = request("/users/me", account.accessToken)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            if (error != null) {
+                idleChurnAccounts.add(account);
+                return OpenLoopDriver.FAILED;
+            }
+            if (response.statusCode() == 200) {
+                account.password = newPassword;
+                account.accessToken = accessToken(response.body());
+            }
+            idleChurnAccounts.add(account);
+            return response.statusCode();
+        });
+    }
+
+    private CompletableFuture<Integer> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest post(String path, String body) {
+        return request(path, null)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+        return accessToken == null ? builder : builder.header("Authorization", "Bearer " + accessToken);
+    }
+
+    private String accessToken(String body) {
+        try {
+            return mapper.readTree(body).get("access_token").asText();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Account randomAccount() {
+        return accounts[ThreadLocalRandom.current().nextInt(accounts.length)];
+    }
+
+    private static String loginRequest(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\",\"role\":\"" + UserRole.ROLE_USER + "\"}";
+    }
+
+    private static Map<String, Integer> weights(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            assertEquals(2, pair.length, "Expected name=weight in load.mix, got " + entry);
+            assertTrue(EXPECTED_STATUS.containsKey(pair[0]), "Unknown operation in load.mix: " + pair[0]);
+            weights.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        return weights;
+    }
+
+    private static final class Account {
+        private final String email;
+        private volatile String accessToken;
+        private volatile String password = PASSWORD;
+
+        private Account(String email, String accessToken) {
+            this.email = email;
+            this.accessToken = accessToken;
+        }
+    }
+}
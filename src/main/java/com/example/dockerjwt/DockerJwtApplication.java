@@ -1,19 +1,32 @@
 package com.example.dockerjwt;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Logins are verified by UserService, so Boot's generated in-memory user is never wanted. The reactive profile puts
+// R2DBC and the reactive application on the classpath; neither belongs here, and an R2DBC connection factory would
+// switch off the DataSource.
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class,
+        excludeName = "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration")
+@ComponentScan(excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.example\\.dockerjwt\\.reactive\\..*")})
+@EnableScheduling
 public class DockerJwtApplication {
+    private static final int STARTUP_STEPS_CAPACITY = 10_000;
 
     public static void main(String[] args) {
-        SpringApplication.run(DockerJwtApplication.class, args);
-    }
-
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
+        SpringApplication application = new SpringApplication(DockerJwtApplication.class);
+        // Buffered steps back the startup report and the actuator startup endpoint
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 }
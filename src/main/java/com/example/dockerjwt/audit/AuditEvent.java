@@ -0,0 +1,19 @@
+package com.example.dockerjwt.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class AuditEvent {
+    private final AuditEventType type;
+    private final UUID userId;
+    private final String email;
+    private final String clientIp;
+    private final Instant occurredAt;
+}
@@ -0,0 +1,9 @@
+package com.example.dockerjwt.audit;
+
+public enum AuditEventType {
+    LOGIN,
+    LOGIN_FAILED,
+    SIGNUP,
+    PASSWORD_CHANGE,
+    IMPORT
+}
@@ -0,0 +1,171 @@
+package com.example.dockerjwt.audit;
+
+import com.example.dockerjwt.user.UuidV7Generator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Request threads only publish into the ring; one background thread writes the events in JDBC batches, once a batch is
+// full or its oldest event has waited a flush interval. A full ring drops new events, a failed write spills its batch
+// to the spill file as JSON lines.
+@Component
+@Slf4j
+public class AuditLog {
+    private static final String INSERT = "INSERT INTO audit_events (id, type, user_id, email, client_ip, occurred_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Path spillFile;
+    private final Thread flusher = new Thread(this::runFlusher, "audit-flusher");
+    private volatile boolean running = true;
+    private final Timer flushWritten;
+    private final Timer flushSpilled;
+    private final Counter written;
+    private final Counter spilled;
+    private final Counter dropped;
+
+    public AuditLog(JdbcTemplate jdbcTemplate, ObjectMapper mapper, MeterRegistry meterRegistry,
+                    @Value("${audit.buffer-size}") int bufferSize,
+                    @Value("${audit.batch-size}") int batchSize,
+                    @Value("${audit.flush-interval}") Duration flushInterval,
+                    @Value("${audit.spill-file}") String spillFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mapper = mapper;
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.spillFile = spillFile.isEmpty() ? null : Paths.get(spillFile);
+        Gauge.builder("audit.queue.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.flushWritten = flushTimer(meterRegistry, "written");
+        this.flushSpilled = flushTimer(meterRegistry, "spilled");
+        this.written = meterRegistry.counter("audit.events", "outcome", "written");
+        this.spilled = meterRegistry.counter("audit.events", "outcome", "spilled");
+        this.dropped = meterRegistry.counter("audit.events", "outcome", "dropped");
+        flusher.setDaemon(true);
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("audit.flush")
+                .description("Time to write one batch of audit events")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    public void record(AuditEventType type, UUID userId, String email, String clientIp) {
+        if (!buffer.offer(new AuditEvent(type, userId, email, clientIp, Instant.now()))) {
+            dropped.increment();
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void runFlusher() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            buffer.drainTo(batch, batchSize - batch.size());
+            long waitNanos = flushIntervalNanos;
+            if (!batch.isEmpty()) {
+                long age = Duration.between(batch.get(0).getOccurredAt(), Instant.now()).toNanos();
+                if (stopping || batch.size() >= batchSize || age >= flushIntervalNanos) {
+                    flush(batch);
+                    batch.clear();
+                    continue;
+                }
+                waitNanos = flushIntervalNanos - age;
+            } else if (stopping) {
+                return;
+            }
+            LockSupport.parkNanos(this, waitNanos);
+        }
+    }
+
+    void flush(List<AuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, event) -> {
+                statement.setObject(1, UuidV7Generator.generate());
+                statement.setString(2, event.getType().name());
+                statement.setObject(3, event.getUserId(), Types.OTHER);
+                statement.setString(4, event.getEmail());
+                statement.setString(5, event.getClientIp());
+                statement.setTimestamp(6, Timestamp.from(event.getOccurredAt()));
+            });
+            written.increment(batch.size());
+            flushWritten.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (DataAccessException e) {
+            log.warn("Audit batch of {} events not written", batch.size(), e);
+            spill(batch);
+            flushSpilled.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void spill(List<AuditEvent> batch) {
+        if (spillFile == null) {
+            dropped.increment(batch.size());
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AuditEvent event : batch) {
+                writer.write(mapper.writeValueAsString(event));
+                writer.newLine();
+            }
+            spilled.increment(batch.size());
+        } catch (IOException e) {
+            dropped.increment(batch.size());
+            log.error("Audit batch of {} events dropped, spill file {} not writable", batch.size(), spillFile, e);
+        }
+    }
+
+    int queued() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.example.dockerjwt.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded queue for many producers and one consumer. Producers claim a sequence with a CAS and publish into its slot;
+// the consumer takes published slots in order and stops at the first one still being written.
+final class AuditRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    // False when full; never blocks
+    boolean offer(T item) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head.get() > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) sequence & mask, item);
+        return true;
+    }
+
+    // Consumer thread only
+    int drainTo(List<T> target, int max) {
+        long sequence = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) sequence & mask;
+            T item = slots.get(index);
+            if (item == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(item);
+            sequence++;
+            drained++;
+        }
+        head.lazySet(sequence);
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.example.dockerjwt.config;
+
+import com.example.dockerjwt.user.User;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String USER_REGION = User.class.getName();
+
+    // Each application context gets its own manager, so contexts sharing a JVM never see each other's regions
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${persistence.user-cache.max-size}") long maxSize,
+                                              @Value("${persistence.user-cache.ttl}") Duration ttl) {
+        CacheConfiguration<Object, Object> region = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxSize))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                .build();
+        EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("urn:dockerjwt:hibernate:" + UUID.randomUUID()),
+                ConfigurationBuilder.newConfigurationBuilder()
+                        .withCache(USER_REGION, region)
+                        .build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+}
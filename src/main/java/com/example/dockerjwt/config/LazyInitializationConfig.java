@@ -0,0 +1,31 @@
+package com.example.dockerjwt.config;
+
+import com.example.dockerjwt.security.JWTFilter;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.LoginRateLimiter;
+import com.example.dockerjwt.security.PrincipalCache;
+import com.example.dockerjwt.security.RefreshTokenService;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import com.example.dockerjwt.security.SigningKeyRing;
+import com.example.dockerjwt.security.TokenVersionRegistry;
+import com.example.dockerjwt.security.VerifiedTokenCache;
+import com.example.dockerjwt.user.UserService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    // With LAZY_INIT=true everything else waits for its first use. The token path and the password encoder stay eager:
+    // the first request must not pay for key loading or hash calibration, and @Scheduled methods only start on beans
+    // that exist.
+    @Bean
+    public static LazyInitializationExcludeFilter securityHotPath() {
+        return LazyInitializationExcludeFilter.forBeanTypes(JWTFilter.class, JWTUtil.class, SigningKeyRing.class,
+                VerifiedTokenCache.class, PrincipalCache.class, RevokedTokenStore.class, TokenVersionRegistry.class,
+                RefreshTokenService.class, LoginRateLimiter.class, PasswordEncoder.class, UserService.class);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.example.dockerjwt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final int topSteps;
+
+    public StartupReport(@Value("${startup.report.top-steps}") int topSteps) {
+        this.topSteps = topSteps;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        log.info("Application ready {} ms after JVM start, resident set {}", ManagementFactory.getRuntimeMXBean().getUptime(),
+                residentSet());
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        // Read without draining, so the actuator startup endpoint still serves the full timeline
+        List<StartupTimeline.TimelineEvent> slowest = ((BufferingApplicationStartup) startup).getBufferedTimeline()
+                .getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topSteps)
+                .collect(Collectors.toList());
+        for (StartupTimeline.TimelineEvent step : slowest) {
+            log.info("Startup step {} ms {} {}", step.getDuration().toMillis(), step.getStartupStep().getName(),
+                    tags(step.getStartupStep()));
+        }
+    }
+
+    // Linux only; the figure to compare between the jar, class-data-sharing and native builds
+    private static String residentSet() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return line.substring("VmRSS:".length()).trim();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Resident set size unavailable", e);
+        }
+        return "unknown";
+    }
+
+    // Durations include nested steps, e.g. entityManagerFactory contains the beans it pulls in
+    private static String tags(StartupStep step) {
+        StringBuilder tags = new StringBuilder();
+        for (StartupStep.Tag tag : step.getTags()) {
+            tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' ');
+        }
+        return tags.toString().trim();
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.example.dockerjwt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Ends a training run as soon as startup is complete, so the JVM can write out the classes it loaded
+@Component
+@Profile(TrainingRun.PROFILE)
+@Slf4j
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+    public static final String PROFILE = "training";
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("Training run complete, exiting");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.dockerjwt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Runs each request, and the repository calls it makes, on its own virtual thread. Database concurrency is then
+// bounded by the Hikari pool and password hashing by its executor, not by Tomcat's worker count.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequests() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor("http-virtual-");
+        log.info("Tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // Looked up reflectively, so the build keeps its Java 11 baseline and only the opt-in needs JDK 21
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs JDK 21 or newer, running on "
+                    + Runtime.version() + "; see RUNTIME_IMAGE in the Dockerfile", e);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.example.dockerjwt.config;
+
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.PrincipalCache;
+import com.example.dockerjwt.security.SecurityUser;
+import com.example.dockerjwt.security.VerifiedTokenCache;
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UserMapper;
+import com.example.dockerjwt.user.UserRepository;
+import com.example.dockerjwt.user.UserRole;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+
+// Runners complete before Boot reports the application ready, so the readiness probe only passes once the hot paths
+// have been through the JIT: token signing and verification, the DTO JSON, findById, and a full request to /users/me
+@Component
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+    private static final String LOGIN_JSON = "{\"email\":\"warm-up@localhost\",\"password\":\"warm-up-password\","
+            + "\"role\":\"ROLE_USER\"}";
+
+    private final JWTUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokens;
+    private final PrincipalCache principalCache;
+    private final UserRepository userRepository;
+    private final ObjectMapper mapper;
+    private final Environment environment;
+    private final int iterations;
+    private final Duration maxDuration;
+
+    public WarmUpRunner(JWTUtil jwtUtil, VerifiedTokenCache verifiedTokens, PrincipalCache principalCache,
+                        UserRepository userRepository, ObjectMapper mapper, Environment environment,
+                        @Value("${warm-up.iterations}") int iterations,
+                        @Value("${warm-up.max-duration}") Duration maxDuration) {
+        this.jwtUtil = jwtUtil;
+        this.verifiedTokens = verifiedTokens;
+        this.principalCache = principalCache;
+        this.userRepository = userRepository;
+        this.mapper = mapper;
+        this.environment = environment;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        // A failed warm-up only costs latency, so it never keeps the application from becoming ready
+        try {
+            int completed = warmUp();
+            log.info("Warm-up finished: {} iterations in {} ms", completed, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Warm-up stopped after {} ms", (System.nanoTime() - start) / 1_000_000, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The synthetic principal and tokens never reach the database and are dropped from the caches afterwards
+    int warmUp() throws IOException, InterruptedException {
+        User user = new User(UUID.randomUUID(), "warm-up@localhost", "", UserRole.ROLE_USER.name());
+        principalCache.get(user.getId(), id -> new SecurityUser(user));
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI me = URI.create("http://127.0.0.1:" + environment.getRequiredProperty("local.server.port") + "/users/me");
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        int completed = 0;
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                String token = jwtUtil.generateToken(user);
+                jwtUtil.verify(token);
+                mapper.writeValueAsBytes(UserMapper.toJWTToken(user, token, token));
+                mapper.writeValueAsBytes(UserMapper.toUserTo(user));
+                mapper.readValue(LOGIN_JSON, LoginRequest.class);
+                userRepository.getUser(UUID.randomUUID());
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(me)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Warm-up request returned " + response.statusCode());
+                }
+                completed++;
+            }
+        } finally {
+            principalCache.evict(user.getId());
+            verifiedTokens.clear();
+        }
+        return completed;
+    }
+
+}
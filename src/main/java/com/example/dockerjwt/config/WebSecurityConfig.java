@@ -1,30 +1,44 @@
 package com.example.dockerjwt.config;
 
+import com.example.dockerjwt.security.AdaptivePasswordEncoder;
+import com.example.dockerjwt.security.BoundedPasswordEncoder;
 import com.example.dockerjwt.security.JWTFilter;
+import com.example.dockerjwt.security.PasswordHashingExecutor;
+import com.example.dockerjwt.security.PublicRoutes;
+import com.example.dockerjwt.user.UserRole;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
 
 @Configuration
 @AllArgsConstructor
 public class WebSecurityConfig {
 
     private final JWTFilter jwtFilter;
+    private final PublicRoutes publicRoutes;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${security.password.algorithm}") String algorithm,
+                                           @Value("${security.password.cost}") int cost,
+                                           @Value("${security.password.target-latency}") Duration targetLatency) {
+        return new BoundedPasswordEncoder(
+                AdaptivePasswordEncoder.calibrated(algorithm, cost, targetLatency), passwordHashingExecutor, meterRegistry);
     }
 
     @Bean
@@ -36,10 +50,9 @@ public class WebSecurityConfig {
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authorizeRequests()
-                .antMatchers("/api-docs/**", "/swagger-ui/**").permitAll()
-                .antMatchers("/login").permitAll()
-                .antMatchers("/healthchecks/app").permitAll()
-                .antMatchers(HttpMethod.POST, "/users/signup", "/users/login").permitAll()
+                .requestMatchers(publicRoutes).permitAll()
+                .requestMatchers(WebSecurityConfig::managementServer).permitAll()
+                .antMatchers(HttpMethod.POST, "/users/import").hasAuthority(UserRole.ROLE_ADMIN.name())
                 .anyRequest().authenticated()
                 .and()
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
@@ -49,9 +62,11 @@ public class WebSecurityConfig {
                 .build();
     }
 
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
-        return authenticationConfiguration.getAuthenticationManager();
+    // Actuator is open only on its own port, which deployments keep off the public network. Decided per request:
+    // EndpointRequest caches its answer from whichever context serves the first request.
+    private static boolean managementServer(HttpServletRequest request) {
+        return WebServerApplicationContext.hasServerNamespace(
+                WebApplicationContextUtils.getWebApplicationContext(request.getServletContext()), "management");
     }
 
 }
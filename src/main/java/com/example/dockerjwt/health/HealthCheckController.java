@@ -0,0 +1,37 @@
+package com.example.dockerjwt.health;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Answers from the in-memory availability state only: no database, Hibernate or health indicators on this path
+@RestController
+public class HealthCheckController {
+    public static final String HEALTHCHECK_URL = "/healthchecks/app";
+
+    private final ApplicationAvailability availability;
+
+    public HealthCheckController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    @GetMapping(value = HEALTHCHECK_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> health() {
+        LivenessState liveness = availability.getLivenessState();
+        ReadinessState readiness = availability.getReadinessState();
+        boolean up = liveness == LivenessState.CORRECT && readiness == ReadinessState.ACCEPTING_TRAFFIC;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", up ? "UP" : "DOWN");
+        body.put("liveness", liveness);
+        body.put("readiness", readiness);
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.dockerjwt.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+    public static final String PBKDF2 = "pbkdf2";
+
+    private static final int BCRYPT_DEFAULT_COST = 10;
+    private static final int ARGON2_DEFAULT_COST = 3;
+    private static final int PBKDF2_DEFAULT_COST = 310_000;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int ARGON2_MEMORY = 1 << 12;
+    private static final int PBKDF2_SALT_LENGTH = 16;
+    private static final int PBKDF2_HASH_WIDTH = 256;
+    private static final int CALIBRATION_ROUNDS = 3;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final String algorithm;
+    private final int cost;
+    private final PasswordEncoder encoder;
+    private final PasswordEncoder bcryptMatcher = new BCryptPasswordEncoder();
+    private final PasswordEncoder argon2Matcher = new Argon2PasswordEncoder();
+    // PBKDF2 hashes do not carry their iteration count, so it is kept in the id and matchers are built per count
+    private final Map<Integer, PasswordEncoder> pbkdf2Matchers = new ConcurrentHashMap<>();
+
+    public AdaptivePasswordEncoder(String algorithm, int cost) {
+        this.algorithm = algorithm;
+        this.cost = cost > 0 ? cost : defaultCost(algorithm);
+        this.encoder = createEncoder(algorithm, this.cost);
+    }
+
+    public static AdaptivePasswordEncoder calibrated(String algorithm, int cost, Duration targetLatency) {
+        if (targetLatency.isZero() || targetLatency.isNegative()) {
+            return new AdaptivePasswordEncoder(algorithm, cost);
+        }
+        int probeCost = probeCost(algorithm);
+        long probeNanos = measure(createEncoder(algorithm, probeCost));
+        double ratio = (double) targetLatency.toNanos() / probeNanos;
+        int calibratedCost;
+        switch (algorithm) {
+            case BCRYPT:
+                calibratedCost = probeCost + (int) Math.floor(Math.log(ratio) / Math.log(2));
+                calibratedCost = Math.max(4, Math.min(31, calibratedCost));
+                break;
+            case ARGON2:
+                calibratedCost = Math.max(1, (int) (probeCost * ratio));
+                break;
+            default:
+                calibratedCost = Math.max(1000, (int) (probeCost * ratio));
+        }
+        log.info("Password hashing calibrated to {} cost {} for target latency {}", algorithm, calibratedCost, targetLatency);
+        return new AdaptivePasswordEncoder(algorithm, calibratedCost);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return "{" + encodeId() + "}" + encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        StoredHash hash = StoredHash.parse(encodedPassword);
+        switch (hash.algorithm) {
+            case BCRYPT:
+                return bcryptMatcher.matches(rawPassword, hash.payload);
+            case ARGON2:
+                return argon2Matcher.matches(rawPassword, hash.payload);
+            case PBKDF2:
+                return pbkdf2Matchers.computeIfAbsent(hash.cost, c -> createEncoder(PBKDF2, c))
+                        .matches(rawPassword, hash.payload);
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        StoredHash hash = StoredHash.parse(encodedPassword);
+        return !algorithm.equals(hash.algorithm) || cost != hash.cost;
+    }
+
+    private String encodeId() {
+        return PBKDF2.equals(algorithm) ? PBKDF2 + ":" + cost : algorithm;
+    }
+
+    private static PasswordEncoder createEncoder(String algorithm, int cost) {
+        switch (algorithm) {
+            case BCRYPT:
+                return new BCryptPasswordEncoder(cost);
+            case ARGON2:
+                return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM,
+                        ARGON2_MEMORY, cost);
+            case PBKDF2:
+                Pbkdf2PasswordEncoder pbkdf2 = new Pbkdf2PasswordEncoder("", PBKDF2_SALT_LENGTH, cost, PBKDF2_HASH_WIDTH);
+                pbkdf2.setAlgorithm(Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+                return pbkdf2;
+            default:
+                throw new IllegalArgumentException("Unsupported password hashing algorithm: " + algorithm);
+        }
+    }
+
+    private static int defaultCost(String algorithm) {
+        switch (algorithm) {
+            case ARGON2:
+                return ARGON2_DEFAULT_COST;
+            case PBKDF2:
+                return PBKDF2_DEFAULT_COST;
+            default:
+                return BCRYPT_DEFAULT_COST;
+        }
+    }
+
+    private static int probeCost(String algorithm) {
+        switch (algorithm) {
+            case ARGON2:
+                return 1;
+            case PBKDF2:
+                return 10_000;
+            default:
+                return 8;
+        }
+    }
+
+    private static long measure(PasswordEncoder encoder) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(best, 1);
+    }
+
+    private static final class StoredHash {
+        private final String algorithm;
+        private final int cost;
+        private final String payload;
+
+        private StoredHash(String algorithm, int cost, String payload) {
+            this.algorithm = algorithm;
+            this.cost = cost;
+            this.payload = payload;
+        }
+
+        // Accepts {bcrypt}$2a$10$..., {argon2}$argon2id$v=19$m=4096,t=3,p=1$..., {pbkdf2:310000}<hex>
+        // and legacy unprefixed BCrypt hashes
+        private static StoredHash parse(String encoded) {
+            int end = encoded.startsWith("{") ? encoded.indexOf('}') : -1;
+            if (end < 0) {
+                return new StoredHash(BCRYPT, bcryptCost(encoded), encoded);
+            }
+            String id = encoded.substring(1, end);
+            String payload = encoded.substring(end + 1);
+            if (id.startsWith(PBKDF2 + ":")) {
+                return new StoredHash(PBKDF2, parseInt(id.substring(PBKDF2.length() + 1)), payload);
+            }
+            if (ARGON2.equals(id)) {
+                return new StoredHash(ARGON2, argon2Cost(payload), payload);
+            }
+            return new StoredHash(id, bcryptCost(payload), payload);
+        }
+
+        private static int bcryptCost(String payload) {
+            return payload.length() > 7 ? parseInt(payload.substring(4, 6)) : -1;
+        }
+
+        private static int argon2Cost(String payload) {
+            int start = payload.indexOf("t=");
+            if (start < 0) {
+                return -1;
+            }
+            int end = payload.indexOf(',', start);
+            return parseInt(payload.substring(start + 2, end < 0 ? payload.length() : end));
+        }
+
+        private static int parseInt(String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.example.dockerjwt.security;
+
+public enum AuthenticationMode {
+    DATABASE,
+    STATELESS
+}
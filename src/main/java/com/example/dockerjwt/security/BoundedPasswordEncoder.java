@@ -0,0 +1,52 @@
+package com.example.dockerjwt.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    // Time seen by the caller, queueing included; password.hashing.duration is the hash alone
+    private final Timer encodeTime;
+    private final Timer matchTime;
+    private final Timer mismatchTime;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.encodeTime = Timer.builder("password.encode").register(meterRegistry);
+        this.matchTime = Timer.builder("password.matches").tag("result", "match").register(meterRegistry);
+        this.mismatchTime = Timer.builder("password.matches").tag("result", "mismatch").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        String encoded = executor.execute(() -> delegate.encode(rawPassword));
+        encodeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        return executor.submit(() -> delegate.encode(rawPassword))
+                .whenComplete((encoded, ex) -> encodeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+        (matches ? matchTime : mismatchTime).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dockerjwt.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@AllArgsConstructor
+@Getter
+public class IssuedRefreshToken {
+    private final UUID userId;
+    private final String value;
+}
@@ -4,11 +4,12 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.example.dockerjwt.user.User;
 import com.example.dockerjwt.user.UserRepository;
 import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -17,17 +18,40 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JWTFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer";
+
     private final JWTUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RevokedTokenStore revokedTokens;
+    private final PublicRoutes publicRoutes;
+    private final AuthenticationMode mode;
+    private final Timer authenticated;
+    private final Timer anonymous;
+    private final Timer invalid;
+    private final Timer rejected;
 
-    public JWTFilter(JWTUtil jwtUtil, UserDetailsService userDetailsService, UserRepository userRepository) {
+    public JWTFilter(JWTUtil jwtUtil, UserRepository userRepository, PrincipalCache principalCache,
+                     TokenVersionRegistry tokenVersionRegistry, RevokedTokenStore revokedTokens,
+                     PublicRoutes publicRoutes, @Value("${jwt.mode}") AuthenticationMode mode,
+                     MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.revokedTokens = revokedTokens;
+        this.publicRoutes = publicRoutes;
+        this.mode = mode;
+        this.authenticated = filterTimer(meterRegistry, "authenticated");
+        this.anonymous = filterTimer(meterRegistry, "anonymous");
+        this.invalid = filterTimer(meterRegistry, "invalid");
+        this.rejected = filterTimer(meterRegistry, "rejected");
     }
 
     @Override
@@ -35,36 +59,105 @@ public class JWTFilter extends OncePerRequestFilter {
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
-        String authHeader = request.getHeader("Authorization");
+        // Timed up to the hand-off, so the rest of the chain is not counted as filter time
+        long start = System.nanoTime();
+        Timer outcome = rejected;
+        try {
+            outcome = authenticate(request, response);
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        // The 400 is already sent; going on would let the authorization check fail on a committed response
+        if (outcome != invalid) {
+            filterChain.doFilter(request, response);
+        }
+    }
 
-        if (authHeader != null && !authHeader.isBlank() && authHeader.startsWith("Bearer")) {
-            String jwt = authHeader.substring(7);
+    private Timer authenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String jwt = bearerToken(request.getHeader("Authorization"));
+        if (jwt == null) {
+            return anonymous;
+        }
+        if (jwt.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "Invalid JWT Token");
+            return invalid;
+        }
+        try {
+            TokenClaims claims = jwtUtil.verify(jwt);
+            if (revokedTokens.isRevoked(claims)) {
+                throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Revoked JWT Token");
+            }
+            SecurityUser userDetails = resolvePrincipal(claims);
 
-            if (jwt.isBlank()) {
-                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
-                        "Invalid JWT Token");
-            } else {
-                try {
-                    String userId = jwtUtil.validateTokenAndReturnEmail(jwt);
-                    User user = userRepository.getUser(userId).orElseThrow(() ->
-                            new ApplicationException(HttpStatus.NOT_FOUND, "Not found"));
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    userDetails.getPassword(),
+                    userDetails.getAuthorities()
+            );
+            authToken.setDetails(claims);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+            return authenticated;
+        } catch (JWTVerificationException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid JWT Token");
+            return invalid;
+        }
+    }
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicRoutes.matches(request);
+    }
 
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            userDetails.getPassword(),
-                            userDetails.getAuthorities()
-                    );
-                    if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    }
-                } catch (JWTVerificationException ex) {
-                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid JWT Token");
-                }
-            }
+    // Returns null without a Bearer scheme, an empty string for a blank token, otherwise the trimmed token
+    public static String bearerToken(String header) {
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        int start = BEARER.length();
+        int end = header.length();
+        if (start < end && !Character.isWhitespace(header.charAt(start))) {
+            return null;
         }
-        filterChain.doFilter(request, response);
+        while (start < end && Character.isWhitespace(header.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        return start == end ? "" : header.substring(start, end);
     }
-}
 
+    // Both modes revoke by token version: the registry carries changes made on other instances, the loaded principal
+    // those this instance has seen since it was cached
+    private SecurityUser resolvePrincipal(TokenClaims claims) {
+        if (tokenVersionRegistry.isRevoked(claims)) {
+            throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Revoked JWT Token");
+        }
+        if (mode == AuthenticationMode.STATELESS && claims.hasIdentity()) {
+            return SecurityUser.fromClaims(claims);
+        }
+        SecurityUser principal = principalCache.get(claims.getUserId(), this::loadPrincipal);
+        if (claims.getTokenVersion() > principal.getTokenVersion()) {
+            // Issued after a change this instance has not seen yet, so the cached copy is out of date
+            principalCache.evict(claims.getUserId());
+            principal = principalCache.get(claims.getUserId(), this::loadPrincipal);
+        }
+        if (claims.getTokenVersion() < principal.getTokenVersion()) {
+            throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Revoked JWT Token");
+        }
+        return principal;
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.filter").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private SecurityUser loadPrincipal(UUID userId) {
+        User user = userRepository.getUser(userId).orElseThrow(() ->
+                new ApplicationException(HttpStatus.NOT_FOUND, "Not found"));
+        return new SecurityUser(user);
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.dockerjwt.security;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.util.UUID;
+
 @Data
 @AllArgsConstructor
 public class JWTToken {
     @JsonProperty("user_id")
-    private String userId;
+    private UUID userId;
     @JsonProperty("access_token")
     private String accessToken;
+    @JsonProperty("refresh_token")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String refreshToken;
+
+    public JWTToken(UUID userId, String accessToken) {
+        this(userId, accessToken, null);
+    }
 }
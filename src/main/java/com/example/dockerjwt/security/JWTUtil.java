@@ -3,47 +3,170 @@ package com.example.dockerjwt.security;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.dockerjwt.user.User;
 import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import java.time.ZonedDateTime;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JWTUtil {
-    private String secret;
-    private Long jwtExpiration;
+    private static final String USER_ID_CLAIM = "user_id";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String ROLE_CLAIM = "role";
+    private static final String VERSION_CLAIM = "ver";
+    private static final String TYPE_CLAIM = "typ";
+    private static final String ACCESS_TYPE = "access";
 
+    // Algorithm and verifier are immutable and thread-safe, so they are built once and swapped as a whole on rebuild
+    private volatile Engine engine;
+    private final VerifiedTokenCache verifiedTokens;
+    private final Timer signTime;
+    private final Timer verifyOk;
+    private final Timer verifyExpired;
+    private final Timer verifyInvalid;
+
+    public JWTUtil(String secret, Long jwtExpiration, VerifiedTokenCache verifiedTokens, MeterRegistry meterRegistry) {
+        this(Algorithm.HMAC256(secret), jwtExpiration, verifiedTokens, meterRegistry);
+    }
+
+    @Autowired
     public JWTUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration}") Long jwtExpiration) {
-        this.secret = secret;
-        this.jwtExpiration = jwtExpiration;
+                   @Value("${jwt.expiration}") Long jwtExpiration,
+                   @Value("${jwt.signing.algorithm}") String signingAlgorithm,
+                   SigningKeyRing keyRing,
+                   VerifiedTokenCache verifiedTokens,
+                   MeterRegistry meterRegistry) {
+        this(signingAlgorithm(signingAlgorithm, secret, keyRing), jwtExpiration, verifiedTokens, meterRegistry);
+    }
+
+    private JWTUtil(Algorithm algorithm, Long jwtExpiration, VerifiedTokenCache verifiedTokens, MeterRegistry meterRegistry) {
+        this.verifiedTokens = verifiedTokens;
+        this.signTime = Timer.builder("jwt.sign").register(meterRegistry);
+        this.verifyOk = verifyTimer(meterRegistry, "ok");
+        this.verifyExpired = verifyTimer(meterRegistry, "expired");
+        this.verifyInvalid = verifyTimer(meterRegistry, "invalid");
+        rebuild(algorithm, jwtExpiration);
+    }
+
+    public void rebuild(String secret, Long jwtExpiration) {
+        rebuild(Algorithm.HMAC256(secret), jwtExpiration);
     }
 
-    public String generateToken(String userId) {
-        Date expirationTime = Date.from(ZonedDateTime.now().plusMinutes(jwtExpiration).toInstant());
-        return JWT.create()
-                .withClaim("user_id", userId)
+    // With a key ring the signing key and kid are resolved per token, so key rotation needs no rebuild
+    public void rebuild(Algorithm algorithm, Long jwtExpiration) {
+        this.engine = new Engine(algorithm, jwtExpiration);
+        verifiedTokens.clear();
+    }
+
+    public String generateToken(User user) {
+        long start = System.nanoTime();
+        Engine current = engine;
+        Date expirationTime = Date.from(ZonedDateTime.now().plusMinutes(current.jwtExpiration).toInstant());
+        String token = JWT.create()
+                .withClaim(USER_ID_CLAIM, user.getId().toString())
+                .withClaim(EMAIL_CLAIM, user.getEmail())
+                .withClaim(ROLE_CLAIM, user.getRole())
+                .withClaim(VERSION_CLAIM, user.getTokenVersion())
                 .withExpiresAt(expirationTime)
-                .withClaim("typ", "access")
-                .sign(Algorithm.HMAC256(secret));
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(TYPE_CLAIM, ACCESS_TYPE)
+                .sign(current.algorithm);
+        signTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
-    public String validateTokenAndReturnEmail(String token) throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(secret))
-                .withClaim("typ", "access").build();
+    // Timed by outcome; cache hits are included and counted separately by VerifiedTokenCache
+    public TokenClaims verify(String token) throws JWTVerificationException {
+        long start = System.nanoTime();
+        Timer outcome = verifyInvalid;
+        try {
+            TokenClaims claims = verifyUntimed(token);
+            outcome = verifyOk;
+            return claims;
+        } catch (ApplicationException ex) {
+            outcome = verifyExpired;
+            throw ex;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TokenClaims verifyUntimed(String token) {
+        TokenClaims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
         DecodedJWT jwt;
         try {
-            jwt = verifier.verify(token);
+            jwt = engine.verifier.verify(token);
         } catch (TokenExpiredException ex) {
             throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Expired JWT Token");
         }
-        return jwt.getClaim("user_id").asString();
+        Integer version = jwt.getClaim(VERSION_CLAIM).asInt();
+        TokenClaims claims = new TokenClaims(
+                jwt.getId(),
+                userId(jwt),
+                jwt.getClaim(EMAIL_CLAIM).asString(),
+                jwt.getClaim(ROLE_CLAIM).asString(),
+                version == null ? 0 : version,
+                jwt.getExpiresAtAsInstant() == null ? Long.MAX_VALUE : jwt.getExpiresAtAsInstant().toEpochMilli());
+        verifiedTokens.put(token, claims);
+        return claims;
+    }
+
+    public UUID validateTokenAndReturnEmail(String token) throws JWTVerificationException {
+        return verify(token).getUserId();
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.verify").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private static UUID userId(DecodedJWT jwt) {
+        String userId = jwt.getClaim(USER_ID_CLAIM).asString();
+        try {
+            return userId == null ? null : UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            throw new JWTDecodeException("Invalid user_id claim");
+        }
+    }
+
+    private static Algorithm signingAlgorithm(String name, String secret, SigningKeyRing keyRing) {
+        switch (name) {
+            case SigningKeyRing.ES256:
+                return Algorithm.ECDSA256(keyRing);
+            case SigningKeyRing.HS256:
+                return Algorithm.HMAC256(secret);
+            default:
+                throw new IllegalArgumentException("Unsupported JWT signing algorithm: " + name);
+        }
+    }
+
+    private static final class Engine {
+        private final Algorithm algorithm;
+        private final JWTVerifier verifier;
+        private final long jwtExpiration;
+
+        private Engine(Algorithm algorithm, long jwtExpiration) {
+            this.algorithm = algorithm;
+            this.verifier = JWT.require(algorithm)
+                    .withClaim(TYPE_CLAIM, ACCESS_TYPE)
+                    .build();
+            this.jwtExpiration = jwtExpiration;
+        }
     }
 
 }
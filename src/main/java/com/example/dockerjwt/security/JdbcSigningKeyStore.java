@@ -0,0 +1,37 @@
+package com.example.dockerjwt.security;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class JdbcSigningKeyStore implements SigningKeyStore {
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcSigningKeyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<StoredSigningKey> findAll() {
+        return jdbcTemplate.query("SELECT kid, activates_at, public_key, private_key FROM signing_keys",
+                (rs, rowNum) -> new StoredSigningKey(rs.getString("kid"), rs.getTimestamp("activates_at").toInstant(),
+                        rs.getBytes("public_key"), rs.getBytes("private_key")));
+    }
+
+    @Override
+    public void insertIfAbsent(StoredSigningKey key) {
+        jdbcTemplate.update("INSERT INTO signing_keys (kid, activates_at, public_key, private_key) VALUES (?, ?, ?, ?) "
+                        + "ON CONFLICT (activates_at) DO NOTHING",
+                key.getKid(), Timestamp.from(key.getActivatesAt()), key.getPublicKey(), key.getPrivateKey());
+    }
+
+    @Override
+    public void deleteSupersededBefore(Instant cutoff) {
+        jdbcTemplate.update("DELETE FROM signing_keys k WHERE EXISTS (SELECT 1 FROM signing_keys s "
+                + "WHERE s.activates_at > k.activates_at AND s.activates_at < ?)", Timestamp.from(cutoff));
+    }
+}
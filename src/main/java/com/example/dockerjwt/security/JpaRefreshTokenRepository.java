@@ -0,0 +1,30 @@
+package com.example.dockerjwt.security;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface JpaRefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :now where t.id = :id and t.usedAt is null and t.revoked = false")
+    int markUsed(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.userId = :userId")
+    int revokeAllForUser(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
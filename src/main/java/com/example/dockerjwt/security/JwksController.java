@@ -0,0 +1,36 @@
+package com.example.dockerjwt.security;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+
+    public static final String JWKS_URL = "/.well-known/jwks.json";
+    // Verifiers refetch on an unknown kid anyway, the max-age only bounds how long a purged key stays trusted
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final SigningKeyRing keyRing;
+
+    public JwksController(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @GetMapping(value = JWKS_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        SigningKeyRing.Jwks jwks = keyRing.getJwks();
+        if (jwks.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(jwks.getEtag()).cacheControl(CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(jwks.getEtag()).cacheControl(CACHE_CONTROL).body(jwks.getJson());
+    }
+
+}
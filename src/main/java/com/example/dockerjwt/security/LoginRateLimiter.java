@@ -0,0 +1,160 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class LoginRateLimiter {
+    private final Limit ipLimit;
+    private final Limit emailLimit;
+    private final int lockoutThreshold;
+    private final long lockoutBase;
+    private final long lockoutMax;
+    private final int maxLockoutDoublings;
+    // Bounded by size; an idle key is dropped once its bucket would have refilled and any lockout has ended
+    private final Cache<String, Bucket> byIp;
+    private final Cache<String, Bucket> byEmail;
+    private final Counter ipRejected;
+    private final Counter emailRejected;
+    private final Counter lockedRejected;
+
+    public LoginRateLimiter(@Value("${security.login-limit.ip.capacity}") int ipCapacity,
+                            @Value("${security.login-limit.ip.refill}") Duration ipRefill,
+                            @Value("${security.login-limit.email.capacity}") int emailCapacity,
+                            @Value("${security.login-limit.email.refill}") Duration emailRefill,
+                            @Value("${security.login-limit.lockout.threshold}") int lockoutThreshold,
+                            @Value("${security.login-limit.lockout.base}") Duration lockoutBase,
+                            @Value("${security.login-limit.lockout.max}") Duration lockoutMax,
+                            @Value("${security.login-limit.max-keys}") long maxKeys,
+                            MeterRegistry meterRegistry) {
+        this.ipLimit = new Limit(ipCapacity, ipRefill);
+        this.emailLimit = new Limit(emailCapacity, emailRefill);
+        this.lockoutThreshold = lockoutThreshold;
+        this.lockoutBase = lockoutBase.toNanos();
+        this.lockoutMax = lockoutMax.toNanos();
+        this.maxLockoutDoublings = lockoutDoublings(this.lockoutBase, this.lockoutMax);
+        long idle = Math.max(this.lockoutMax, Math.max(ipLimit.refillTime(), emailLimit.refillTime()));
+        this.byIp = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(Duration.ofNanos(idle)).build();
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(Duration.ofNanos(idle)).build();
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.emailRejected = rejectedCounter(meterRegistry, "email");
+        this.lockedRejected = rejectedCounter(meterRegistry, "lockout");
+    }
+
+    // Runs before the password is hashed, so a rejected attempt costs a cache lookup and a CAS
+    public void acquire(String clientIp, String email) {
+        acquire(clientIp, email, System.nanoTime());
+    }
+
+    public void onFailure(String email) {
+        onFailure(email, System.nanoTime());
+    }
+
+    public void onSuccess(String email) {
+        Bucket account = byEmail.getIfPresent(emailKey(email));
+        if (account != null) {
+            account.failures.set(0);
+        }
+    }
+
+    void acquire(String clientIp, String email, long now) {
+        Bucket account = byEmail.get(emailKey(email), key -> new Bucket(now));
+        if (account.lockedUntil - now > 0) {
+            lockedRejected.increment();
+            throw tooManyAttempts();
+        }
+        if (!byIp.get(clientIp, key -> new Bucket(now)).tryAcquire(ipLimit, now)) {
+            ipRejected.increment();
+            throw tooManyAttempts();
+        }
+        if (!account.tryAcquire(emailLimit, now)) {
+            emailRejected.increment();
+            throw tooManyAttempts();
+        }
+    }
+
+    // Every failure past the threshold doubles the lockout, up to the configured maximum
+    void onFailure(String email, long now) {
+        Bucket account = byEmail.get(emailKey(email), key -> new Bucket(now));
+        int failures = account.failures.incrementAndGet();
+        if (failures >= lockoutThreshold) {
+            int doublings = Math.min(failures - lockoutThreshold, maxLockoutDoublings);
+            account.lockedUntil = now + Math.min(lockoutBase << doublings, lockoutMax);
+        }
+    }
+
+    // Doublings until the base reaches the maximum; never so many that the shift overflows into a negative duration
+    static int lockoutDoublings(long base, long max) {
+        int limit = Long.numberOfLeadingZeros(base) - 1;
+        int doublings = 0;
+        while (doublings < limit && base << doublings < max) {
+            doublings++;
+        }
+        return doublings;
+    }
+
+    private static ApplicationException tooManyAttempts() {
+        return new ApplicationException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("login.rate.limited").tag("reason", reason).register(meterRegistry);
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Limit {
+        private final long interval;
+        private final long burst;
+        private final int capacity;
+
+        private Limit(int capacity, Duration refill) {
+            this.capacity = capacity;
+            this.interval = refill.toNanos();
+            this.burst = (capacity - 1) * interval;
+        }
+
+        private long refillTime() {
+            return capacity * interval;
+        }
+    }
+
+    // Token bucket kept as a single theoretical arrival time (GCRA), so taking a token is one compare-and-set
+    private static final class Bucket {
+        private final AtomicLong arrival;
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile long lockedUntil;
+
+        private Bucket(long now) {
+            this.arrival = new AtomicLong(now);
+            this.lockedUntil = now;
+        }
+
+        private boolean tryAcquire(Limit limit, long now) {
+            while (true) {
+                long current = arrival.get();
+                long base = current - now > 0 ? current : now;
+                if (base - now > limit.burst) {
+                    return false;
+                }
+                if (arrival.compareAndSet(current, base + limit.interval)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Timer hashTime;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads}") int threads,
+                                   @Value("${security.password-hashing.queue-size}") int queueSize,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.queueWait = Timer.builder("password.hashing.queue.wait").register(meterRegistry);
+        this.hashTime = Timer.builder("password.hashing.duration").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTime.record(task);
+            });
+        } catch (RejectedExecutionException ex) {
+            throw rejected();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Password operation interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // For bulk work: the caller bounds how many tasks it keeps in flight, so interactive requests still find queue room
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTime.record(task);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            throw rejected();
+        }
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    private ApplicationException rejected() {
+        rejected.increment();
+        return new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent password operations");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.example.dockerjwt.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+    private static final String CACHE_NAME = "principals";
+
+    private final Cache<UUID, SecurityUser> cache;
+    private final Counter invalidations;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size}") long maxSize,
+                          @Value("${security.principal-cache.ttl}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.invalidations = Counter.builder("cache.invalidations")
+                .tag("cache", CACHE_NAME)
+                .description("Explicit invalidations after the user was saved")
+                .register(meterRegistry);
+    }
+
+    public SecurityUser get(UUID userId, Function<UUID, SecurityUser> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void evict(UUID userId) {
+        cache.invalidate(userId);
+        invalidations.increment();
+    }
+
+}
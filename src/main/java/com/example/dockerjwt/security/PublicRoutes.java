@@ -0,0 +1,80 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.health.HealthCheckController;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+
+// Single source of the routes open without a token: permitted by WebSecurityConfig and skipped by JWTFilter
+@Component
+public class PublicRoutes implements RequestMatcher {
+
+    private static final Route[] ROUTES = {
+            Route.prefix(null, "/api-docs"),
+            Route.prefix(null, "/swagger-ui"),
+            Route.exact(null, "/login"),
+            // Container error dispatches, so a status sent by a filter keeps its own error body
+            Route.exact(null, "/error"),
+            Route.exact(null, HealthCheckController.HEALTHCHECK_URL),
+            Route.exact(HttpMethod.GET, JwksController.JWKS_URL),
+            Route.exact(HttpMethod.POST, "/users/signup"),
+            Route.exact(HttpMethod.POST, "/users/login"),
+            Route.exact(HttpMethod.POST, "/users/token/refresh")
+    };
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        // The firewall has already rejected encoded and non-normalized URIs, so the raw URI is safe to compare
+        String path = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (!contextPath.isEmpty() && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        return matches(request.getMethod(), path);
+    }
+
+    // Path within the application, for callers that are not servlet requests
+    public boolean matches(String method, String path) {
+        for (Route route : ROUTES) {
+            if (route.matches(method, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Route {
+        private final String method;
+        private final String path;
+        private final boolean prefix;
+
+        private Route(HttpMethod method, String path, boolean prefix) {
+            this.method = method == null ? null : method.name();
+            this.path = path;
+            this.prefix = prefix;
+        }
+
+        private static Route exact(HttpMethod method, String path) {
+            return new Route(method, path, false);
+        }
+
+        // Same paths as the ant pattern path/**: the path itself and everything below it
+        private static Route prefix(HttpMethod method, String path) {
+            return new Route(method, path, true);
+        }
+
+        private boolean matches(String requestMethod, String requestPath) {
+            if (method != null && !method.equals(requestMethod)) {
+                return false;
+            }
+            if (!prefix) {
+                return path.equals(requestPath);
+            }
+            return requestPath.startsWith(path)
+                    && (requestPath.length() == path.length() || requestPath.charAt(path.length()) == '/');
+        }
+    }
+
+}
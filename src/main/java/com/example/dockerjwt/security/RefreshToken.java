@@ -0,0 +1,47 @@
+package com.example.dockerjwt.security;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "refresh_tokens_family_id_idx", columnList = "family_id"),
+        @Index(name = "refresh_tokens_user_id_idx", columnList = "user_id")})
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class RefreshToken {
+    @Id
+    @GenericGenerator(name = "uuid7", strategy = "com.example.dockerjwt.user.UuidV7Generator")
+    @GeneratedValue(generator = "uuid7")
+    @Column(nullable = false, updatable = false)
+    private UUID id;
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+    @Column(name = "family_id", nullable = false, updatable = false)
+    private UUID familyId;
+    @Column(name = "token_hash", length = 64, nullable = false, unique = true, updatable = false)
+    @ToString.Exclude
+    private String tokenHash;
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private Instant expiresAt;
+    @Column(name = "used_at")
+    private Instant usedAt;
+    @Column(name = "revoked", nullable = false)
+    private boolean revoked;
+
+    public RefreshToken(UUID userId, UUID familyId, String tokenHash, Instant expiresAt) {
+        this.userId = userId;
+        this.familyId = familyId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+    }
+}
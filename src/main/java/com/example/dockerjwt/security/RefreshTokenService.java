@@ -0,0 +1,99 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.user.UuidV7Generator;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final JpaRefreshTokenRepository repository;
+    private final long refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(JpaRefreshTokenRepository repository,
+                               @Value("${jwt.refresh-expiration}") Long refreshExpiration) {
+        this.repository = repository;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    @Transactional
+    public String issue(UUID userId) {
+        return issue(userId, UuidV7Generator.generate());
+    }
+
+    // Reuse of an already rotated token means it leaked: the whole family is revoked and the revocation is kept
+    @Transactional(noRollbackFor = ApplicationException.class)
+    public IssuedRefreshToken rotate(String value) {
+        RefreshToken token = repository.findByTokenHash(hash(value)).orElseThrow(() ->
+                new ApplicationException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+        Instant now = Instant.now();
+        if (repository.markUsed(token.getId(), now) == 0) {
+            repository.revokeFamily(token.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}, family {} revoked", token.getUserId(), token.getFamilyId());
+            throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Expired refresh token");
+        }
+        return new IssuedRefreshToken(token.getUserId(), issue(token.getUserId(), token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revoke(String value, UUID userId) {
+        repository.findByTokenHash(hash(value))
+                .filter(token -> token.getUserId().equals(userId))
+                .ifPresent(token -> repository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeAll(UUID userId) {
+        repository.revokeAllForUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(Instant.now());
+        log.debug("Expired refresh tokens purged: {}", deleted);
+    }
+
+    private String issue(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = Instant.now().plus(refreshExpiration, ChronoUnit.MINUTES);
+        repository.save(new RefreshToken(userId, familyId, hash(value), expiresAt));
+        return value;
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.US_ASCII));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
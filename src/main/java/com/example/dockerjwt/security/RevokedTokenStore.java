@@ -0,0 +1,54 @@
+package com.example.dockerjwt.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per instance: a logout revokes the access token only on the instance that served it. Other replicas accept it until
+// it expires (jwt.expiration); the refresh token and password-change revocations are shared through the database.
+@Component
+public class RevokedTokenStore {
+    private static final long BUCKET_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    // Token ids are grouped by the minute their token expires; a bucket is dropped once all of its tokens expired,
+    // so memory never holds more than the revocations of one access token lifetime
+    private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+
+    public RevokedTokenStore(MeterRegistry meterRegistry) {
+        Gauge.builder("jwt.revoked.tokens", buckets, b -> b.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+    }
+
+    public void revoke(TokenClaims claims) {
+        if (claims.getTokenId() == null || claims.getExpiresAt() <= System.currentTimeMillis()) {
+            return;
+        }
+        buckets.computeIfAbsent(bucket(claims.getExpiresAt()), b -> ConcurrentHashMap.newKeySet())
+                .add(claims.getTokenId());
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        if (claims.getTokenId() == null) {
+            return false;
+        }
+        Set<String> bucket = buckets.get(bucket(claims.getExpiresAt()));
+        return bucket != null && bucket.contains(claims.getTokenId());
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purge() {
+        long current = bucket(System.currentTimeMillis());
+        buckets.keySet().removeIf(bucket -> bucket < current);
+    }
+
+    private static long bucket(long expiresAt) {
+        return expiresAt / BUCKET_MILLIS;
+    }
+
+}
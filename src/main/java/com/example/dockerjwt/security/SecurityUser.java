@@ -1,35 +1,55 @@
 package com.example.dockerjwt.security;
 
 import com.example.dockerjwt.user.User;
-import lombok.Data;
+import lombok.Getter;
+import lombok.ToString;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.UUID;
 
-@Data
+// Cached and shared across request threads, so it holds a copy of the user's fields and never the entity itself
+@Getter
+@ToString(exclude = "password")
 public class SecurityUser implements UserDetails {
-    private transient User user;
+    private final UUID id;
+    private final String email;
+    private final transient String password;
+    private final String role;
+    private final int tokenVersion;
+    private final transient Collection<GrantedAuthority> authorities;
+    private final boolean claimsOnly;
 
     public SecurityUser(User user) {
-        this.user = user;
+        this(user.getId(), user.getEmail(), user.getPassword(), user.getRole(), user.getTokenVersion(), false);
     }
 
-    @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.singletonList(new SimpleGrantedAuthority(user.getRole()));
+    private SecurityUser(UUID id, String email, String password, String role, int tokenVersion, boolean claimsOnly) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority(role));
+        this.claimsOnly = claimsOnly;
+    }
+
+    public static SecurityUser fromClaims(TokenClaims claims) {
+        return new SecurityUser(claims.getUserId(), claims.getEmail(), null, claims.getRole(),
+                claims.getTokenVersion(), true);
     }
 
     @Override
-    public String getPassword() {
-        return user.getPassword();
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 
     @Override
@@ -52,8 +72,4 @@ public class SecurityUser implements UserDetails {
         return true;
     }
 
-    public User getUser() {
-        return user;
-    }
-
 }
@@ -0,0 +1,269 @@
+package com.example.dockerjwt.security;
+
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// The keys live in the shared SigningKeyStore, so every instance signs with the same key and publishes the same JWKS,
+// and restarts keep live tokens valid. Activation times are aligned to the rotation interval: instances refreshing
+// around the same moment ask for the same keys, and the store keeps whichever was stored first.
+@Component
+@Slf4j
+public class SigningKeyRing implements ECDSAKeyProvider {
+    public static final String ES256 = "ES256";
+    public static final String HS256 = "HS256";
+
+    private static final int COORDINATE_LENGTH = 32;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final boolean enabled;
+    private final SigningKeyStore store;
+    private final SecretKeySpec encryptionKey;
+    private final long rotationMillis;
+    private final Duration overlap;
+    private final SecureRandom random = new SecureRandom();
+    // Every stored key verifies, newest activation first; replaced as a whole on refresh
+    private volatile List<SigningKey> keys = List.of();
+    private volatile SigningKey active;
+    private volatile Jwks jwks;
+
+    public SigningKeyRing(@Value("${jwt.signing.algorithm}") String algorithm,
+                          @Value("${jwt.secret}") String secret,
+                          @Value("${jwt.signing.rotation-interval}") Duration rotationInterval,
+                          @Value("${jwt.signing.key-overlap}") Duration overlap,
+                          @Value("${jwt.expiration}") Long jwtExpiration,
+                          SigningKeyStore store) {
+        this.enabled = ES256.equals(algorithm);
+        this.store = store;
+        this.encryptionKey = encryptionKey(secret);
+        this.rotationMillis = rotationInterval.toMillis();
+        // A superseded key must outlive every token it signed
+        Duration tokenLifetime = Duration.ofMinutes(jwtExpiration);
+        this.overlap = overlap.compareTo(tokenLifetime) < 0 ? tokenLifetime : overlap;
+        this.jwks = Jwks.of(List.of());
+        if (enabled) {
+            refresh(Instant.now());
+        }
+    }
+
+    // A failed refresh keeps the current ring; the next one retries
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval}", initialDelayString = "${jwt.signing.refresh-interval}")
+    public void refresh() {
+        try {
+            refresh(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Signing keys not refreshed", e);
+        }
+    }
+
+    // Makes sure a key signs now and the next one is already published, a full rotation interval before it signs,
+    // so verifiers caching the JWKS know it; then drops keys superseded longer than the overlap ago
+    synchronized void refresh(Instant now) {
+        if (!enabled) {
+            return;
+        }
+        Instant slot = Instant.ofEpochMilli(Math.floorDiv(now.toEpochMilli(), rotationMillis) * rotationMillis);
+        List<StoredSigningKey> stored = store.findAll();
+        if (stored.stream().allMatch(key -> key.getActivatesAt().isAfter(now))) {
+            store.insertIfAbsent(generate(slot));
+        }
+        if (stored.stream().noneMatch(key -> key.getActivatesAt().isAfter(now))) {
+            store.insertIfAbsent(generate(slot.plusMillis(rotationMillis)));
+        }
+        store.deleteSupersededBefore(now.minus(overlap));
+        List<SigningKey> ring = new ArrayList<>();
+        for (StoredSigningKey key : store.findAll()) {
+            ring.add(load(key));
+        }
+        ring.sort(Comparator.comparing((SigningKey key) -> key.activatesAt).reversed());
+        SigningKey signing = ring.stream()
+                .filter(key -> !key.activatesAt.isAfter(now))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No signing key active at " + now));
+        this.keys = List.copyOf(ring);
+        this.jwks = Jwks.of(ring);
+        if (active == null || !active.kid.equals(signing.kid)) {
+            log.info("Signing key {} active, {} keys published", signing.kid, ring.size());
+        }
+        this.active = signing;
+    }
+
+    @Override
+    public ECPublicKey getPublicKeyById(String keyId) {
+        for (SigningKey key : keys) {
+            if (key.kid.equals(keyId)) {
+                return key.publicKey;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ECPrivateKey getPrivateKey() {
+        return active.privateKey;
+    }
+
+    @Override
+    public String getPrivateKeyId() {
+        return active.kid;
+    }
+
+    public Jwks getJwks() {
+        return jwks;
+    }
+
+    private StoredSigningKey generate(Instant activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair pair = generator.generateKeyPair();
+            byte[] nonce = new byte[NONCE_LENGTH];
+            random.nextBytes(nonce);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+            byte[] encrypted = cipher.doFinal(pair.getPrivate().getEncoded());
+            byte[] privateKey = new byte[NONCE_LENGTH + encrypted.length];
+            System.arraycopy(nonce, 0, privateKey, 0, NONCE_LENGTH);
+            System.arraycopy(encrypted, 0, privateKey, NONCE_LENGTH, encrypted.length);
+            return new StoredSigningKey(UUID.randomUUID().toString(), activatesAt, pair.getPublic().getEncoded(),
+                    privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SigningKey load(StoredSigningKey key) {
+        KeyFactory factory;
+        byte[] privateKey;
+        try {
+            factory = KeyFactory.getInstance("EC");
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey,
+                    new GCMParameterSpec(TAG_LENGTH_BITS, key.getPrivateKey(), 0, NONCE_LENGTH));
+            privateKey = cipher.doFinal(key.getPrivateKey(), NONCE_LENGTH, key.getPrivateKey().length - NONCE_LENGTH);
+        } catch (AEADBadTagException e) {
+            throw new IllegalStateException("Signing key " + key.getKid()
+                    + " was stored by an instance with a different jwt.secret", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            return new SigningKey(key.getKid(), key.getActivatesAt(),
+                    (ECPublicKey) factory.generatePublic(new X509EncodedKeySpec(key.getPublicKey())),
+                    (ECPrivateKey) factory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Every instance shares jwt.secret, so each can decrypt the private keys the others stored
+    private static SecretKeySpec encryptionKey(String secret) {
+        try {
+            byte[] key = MessageDigest.getInstance("SHA-256")
+                    .digest(("signing-keys:" + secret).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(key, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Jwks {
+        private final String json;
+        private final String etag;
+
+        private Jwks(String json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public String getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        private static Jwks of(List<SigningKey> keys) {
+            List<Map<String, String>> jwks = new ArrayList<>();
+            for (SigningKey key : keys) {
+                jwks.add(key.toJwk());
+            }
+            try {
+                String json = MAPPER.writeValueAsString(Map.of("keys", jwks));
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+                return new Jwks(json, "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"");
+            } catch (JsonProcessingException | GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class SigningKey {
+        private final String kid;
+        private final Instant activatesAt;
+        private final ECPublicKey publicKey;
+        private final ECPrivateKey privateKey;
+
+        private SigningKey(String kid, Instant activatesAt, ECPublicKey publicKey, ECPrivateKey privateKey) {
+            this.kid = kid;
+            this.activatesAt = activatesAt;
+            this.publicKey = publicKey;
+            this.privateKey = privateKey;
+        }
+
+        private Map<String, String> toJwk() {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", ES256);
+            jwk.put("kid", kid);
+            jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+            jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+            return jwk;
+        }
+
+        private static String coordinate(BigInteger value) {
+            byte[] bytes = value.toByteArray();
+            byte[] fixed = new byte[COORDINATE_LENGTH];
+            int length = Math.min(bytes.length, COORDINATE_LENGTH);
+            System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.dockerjwt.security;
+
+import java.time.Instant;
+import java.util.List;
+
+// Shared by every instance, so all of them sign with and publish the same keys
+public interface SigningKeyStore {
+
+    List<StoredSigningKey> findAll();
+
+    // Another instance may already have stored a key with the same activation time; that one is kept
+    void insertIfAbsent(StoredSigningKey key);
+
+    // Removes every key whose successor activated before the cutoff
+    void deleteSupersededBefore(Instant cutoff);
+}
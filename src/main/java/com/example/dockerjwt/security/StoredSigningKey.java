@@ -0,0 +1,16 @@
+package com.example.dockerjwt.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// One signing_keys row: the X.509 public key, and the PKCS#8 private key encrypted by SigningKeyRing
+@Getter
+@AllArgsConstructor
+public class StoredSigningKey {
+    private final String kid;
+    private final Instant activatesAt;
+    private final byte[] publicKey;
+    private final byte[] privateKey;
+}
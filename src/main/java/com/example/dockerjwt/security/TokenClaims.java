@@ -0,0 +1,23 @@
+package com.example.dockerjwt.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class TokenClaims {
+    private final String tokenId;
+    private final UUID userId;
+    private final String email;
+    private final String role;
+    private final int tokenVersion;
+    private final long expiresAt;
+
+    public boolean hasIdentity() {
+        return email != null && role != null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.user.JpaUserRepository;
+import com.example.dockerjwt.user.UserTokenVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class TokenVersionRegistry {
+    // Rows are re-read with some overlap so a write committed slightly out of clock order is not missed
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final JpaUserRepository repository;
+    private final Map<UUID, Integer> versions = new ConcurrentHashMap<>();
+    private Instant refreshedUpTo = Instant.EPOCH;
+
+    public TokenVersionRegistry(JpaUserRepository repository) {
+        this.repository = repository;
+    }
+
+    // Runs in database mode too: a principal cached on this instance does not see password changes made on another
+    @Scheduled(fixedDelayString = "${jwt.version-refresh-interval}")
+    public void refresh() {
+        Instant since = refreshedUpTo.equals(Instant.EPOCH) ? Instant.EPOCH : refreshedUpTo.minus(REFRESH_OVERLAP);
+        List<UserTokenVersion> changed = repository.findByTokenVersionUpdatedAtAfter(since);
+        for (UserTokenVersion version : changed) {
+            update(version.getId(), version.getTokenVersion());
+            if (version.getTokenVersionUpdatedAt().isAfter(refreshedUpTo)) {
+                refreshedUpTo = version.getTokenVersionUpdatedAt();
+            }
+        }
+        log.debug("Token versions refreshed: {} changed, {} tracked", changed.size(), versions.size());
+    }
+
+    public void update(UUID userId, int version) {
+        if (version > 0) {
+            versions.merge(userId, version, Math::max);
+        }
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        Integer current = versions.get(claims.getUserId());
+        return current != null && claims.getTokenVersion() < current;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.dockerjwt.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Component
+public class VerifiedTokenCache {
+    private static final String CACHE_NAME = "verified-tokens";
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // Direct-mapped table: a slot holds the newest token hashed to it, so memory is fixed at the configured size
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(@Value("${jwt.verified-token-cache.size}") int size, MeterRegistry meterRegistry) {
+        int capacity = size <= 0 ? 0 : Integer.highestOneBit(size * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        this.mask = capacity - 1;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+    }
+
+    public TokenClaims get(String token) {
+        if (mask < 0) {
+            return null;
+        }
+        ByteBuffer digest = digest(token);
+        long high = digest.getLong();
+        long low = digest.getLong();
+        Entry entry = slots.get((int) low & mask);
+        if (entry != null && entry.high == high && entry.low == low
+                && System.currentTimeMillis() < entry.claims.getExpiresAt()) {
+            hits.increment();
+            return entry.claims;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String token, TokenClaims claims) {
+        if (mask < 0) {
+            return;
+        }
+        ByteBuffer digest = digest(token);
+        long high = digest.getLong();
+        long low = digest.getLong();
+        slots.set((int) low & mask, new Entry(high, low, claims));
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class Entry {
+        private final long high;
+        private final long low;
+        private final TokenClaims claims;
+
+        private Entry(long high, long low, TokenClaims claims) {
+            this.high = high;
+            this.low = low;
+            this.claims = claims;
+        }
+    }
+
+}
@@ -1,9 +1,27 @@
 package com.example.dockerjwt.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
-public interface JpaUserRepository extends JpaRepository<User, String> {
-    Optional<User> findByEmail(String email);
+public interface JpaUserRepository extends JpaRepository<User, UUID> {
+    // Matches the users_email_lower_idx expression, so the lookup is an index scan and case-insensitive.
+    // Logins verify the password against the row itself, never a copy cached by this instance.
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    @QueryHints(@QueryHint(name = "javax.persistence.cache.retrieveMode", value = "BYPASS"))
+    Optional<User> findByEmail(@Param("email") String email);
+
+    // For callers that check or change credentials: the second-level cache is per instance and may be stale
+    @Query("select u from User u where u.id = :id")
+    @QueryHints(@QueryHint(name = "javax.persistence.cache.retrieveMode", value = "BYPASS"))
+    Optional<User> findCurrentById(@Param("id") UUID id);
+
+    List<UserTokenVersion> findByTokenVersionUpdatedAtAfter(Instant since);
 }
@@ -0,0 +1,68 @@
+package com.example.dockerjwt.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class PasswordRehasher {
+    private static final int QUEUE_SIZE = 256;
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    // Jobs only wait for the bounded hashing pool, so one thread is enough to keep rehashing off the request path
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "password-rehash");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final Counter rehashed;
+    private final Counter skipped;
+
+    public PasswordRehasher(UserRepository userRepository, PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.rehashed = meterRegistry.counter("password.rehash", "result", "done");
+        this.skipped = meterRegistry.counter("password.rehash", "result", "skipped");
+    }
+
+    public void rehashIfNeeded(User user, String rawPassword) {
+        String verifiedHash = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(verifiedHash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> rehash(user.getId(), verifiedHash, rawPassword));
+        } catch (RejectedExecutionException e) {
+            skipped.increment();
+        }
+    }
+
+    private void rehash(UUID userId, String verifiedHash, String rawPassword) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            // The password may have changed since the login was verified; the update never overwrites a newer hash
+            (userRepository.replacePassword(userId, verifiedHash, newHash) ? rehashed : skipped).increment();
+        } catch (RuntimeException e) {
+            skipped.increment();
+            log.warn("Password rehash failed for user {}", userId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
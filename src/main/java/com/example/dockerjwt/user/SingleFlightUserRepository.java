@@ -0,0 +1,143 @@
+package com.example.dockerjwt.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Repository
+@Primary
+public class SingleFlightUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    // Concurrent misses for one key wait on the same future; the map locks per bin, so other keys never contend
+    private final Map<UUID, CompletableFuture<Optional<User>>> byId = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Optional<User>>> byEmail = new ConcurrentHashMap<>();
+    private final Counter idLoads;
+    private final Counter idCollapsed;
+    private final Counter emailLoads;
+    private final Counter emailCollapsed;
+    private final Timer addUserTime;
+    private final Timer addUsersTime;
+    private final Timer getUserTime;
+    private final Timer getCurrentUserTime;
+    private final Timer getUserByEmailTime;
+    private final Timer saveUserTime;
+    private final Timer replacePasswordTime;
+
+    public SingleFlightUserRepository(UserRepositoryImpl delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.idLoads = meterRegistry.counter("user.repository.loads", "key", "id", "result", "executed");
+        this.idCollapsed = meterRegistry.counter("user.repository.loads", "key", "id", "result", "collapsed");
+        this.emailLoads = meterRegistry.counter("user.repository.loads", "key", "email", "result", "executed");
+        this.emailCollapsed = meterRegistry.counter("user.repository.loads", "key", "email", "result", "collapsed");
+        this.addUserTime = methodTimer(meterRegistry, "addUser");
+        this.addUsersTime = methodTimer(meterRegistry, "addUsers");
+        this.getUserTime = methodTimer(meterRegistry, "getUser");
+        this.getCurrentUserTime = methodTimer(meterRegistry, "getCurrentUser");
+        this.getUserByEmailTime = methodTimer(meterRegistry, "getUserByEmail");
+        this.saveUserTime = methodTimer(meterRegistry, "saveUser");
+        this.replacePasswordTime = methodTimer(meterRegistry, "replacePassword");
+    }
+
+    @Override
+    public Optional<User> addUser(User user) {
+        return addUserTime.record(() -> delegate.addUser(user));
+    }
+
+    @Override
+    public Set<UUID> addUsers(List<User> users) {
+        return addUsersTime.record(() -> {
+            Set<UUID> inserted = delegate.addUsers(users);
+            users.forEach(user -> byEmail.remove(emailKey(user.getEmail())));
+            return inserted;
+        });
+    }
+
+    @Override
+    public Optional<User> getUser(UUID userId) {
+        return getUserTime.record(() -> load(byId, userId, () -> delegate.getUser(userId), idLoads, idCollapsed));
+    }
+
+    // Rare, and a load joined before a write could hand back the very row the caller is checking against
+    @Override
+    public Optional<User> getCurrentUser(UUID userId) {
+        return getCurrentUserTime.record(() -> delegate.getCurrentUser(userId));
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        return getUserByEmailTime.record(() ->
+                load(byEmail, emailKey(email), () -> delegate.getUserByEmail(email), emailLoads, emailCollapsed));
+    }
+
+    // Callers arriving after a write must not join a load that may have read the old row
+    @Override
+    public User saveUser(User user) {
+        return saveUserTime.record(() -> {
+            User saved = delegate.saveUser(user);
+            byId.remove(user.getId());
+            byEmail.remove(emailKey(user.getEmail()));
+            return saved;
+        });
+    }
+
+    @Override
+    public boolean replacePassword(UUID userId, String verifiedHash, String newHash) {
+        return replacePasswordTime.record(() -> delegate.replacePassword(userId, verifiedHash, newHash));
+    }
+
+    // Time seen by callers, including waits on a collapsed load and second-level cache hits
+    private static Timer methodTimer(MeterRegistry meterRegistry, String method) {
+        return Timer.builder("user.repository.calls").tag("method", method).register(meterRegistry);
+    }
+
+    private static <K> Optional<User> load(Map<K, CompletableFuture<Optional<User>>> inFlight, K key,
+                                           Supplier<Optional<User>> loader, Counter loads, Counter collapsed) {
+        CompletableFuture<Optional<User>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> existing = inFlight.putIfAbsent(key, future);
+        // Callers may change the user they get, so each one that joined a load gets its own copy of the entity
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing).map(User::copy);
+        }
+        loads.increment();
+        try {
+            future.complete(loader.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+        return await(future);
+    }
+
+    // Email lookups are case-insensitive, so differently cased misses for one user share a load
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Optional<User> await(CompletableFuture<Optional<User>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -3,24 +3,30 @@ package com.example.dockerjwt.user;
 import com.example.dockerjwt.validation.ValueOfEnum;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
 
 @Entity
 @Table(name = "users")
-@AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @Getter
 @Setter
 @ToString
 public class User {
     @Id
-    @GenericGenerator(name = "uuid2", strategy = "uuid2")
-    @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "uuid2")
-    @Column(length = 36, nullable = false, updatable = false)
-    private String id;
-    @Column(name = "email", nullable = false, unique = true)
+    @GenericGenerator(name = "uuid7", strategy = "com.example.dockerjwt.user.UuidV7Generator")
+    @GeneratedValue(generator = "uuid7")
+    @Column(nullable = false, updatable = false)
+    private UUID id;
+    // Uniqueness is enforced case-insensitively by the users_email_lower_idx index on lower(email)
+    @Column(name = "email", nullable = false)
     private String email;
     @Column(name = "password", nullable = false)
     @JsonIgnore
@@ -28,9 +34,40 @@ public class User {
     @ValueOfEnum(enumClass = UserRole.class)
     @Column(name = "role")
     private String role;
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    @JsonIgnore
+    private int tokenVersion;
+    @Column(name = "token_version_updated_at")
+    @JsonIgnore
+    private Instant tokenVersionUpdatedAt;
+    // Null until persisted, so Spring Data treats users created with an id as new
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    public User(UUID id, String email, String password, String role) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+    }
 
     public User(String email, String password, String role) {
         this(null, email, password, role);
     }
 
+    // Detached and unshared: changes to the copy never reach another holder of the original
+    public User copy() {
+        User copy = new User(id, email, password, role);
+        copy.tokenVersion = tokenVersion;
+        copy.tokenVersionUpdatedAt = tokenVersionUpdatedAt;
+        copy.version = version;
+        return copy;
+    }
+
+    public void revokeTokens() {
+        tokenVersion++;
+        tokenVersionUpdatedAt = Instant.now();
+    }
+
 }
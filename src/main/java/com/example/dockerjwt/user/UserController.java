@@ -1,25 +1,29 @@
 package com.example.dockerjwt.user;
 
+import com.example.dockerjwt.audit.AuditEventType;
+import com.example.dockerjwt.audit.AuditLog;
 import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.security.LoginRateLimiter;
 import com.example.dockerjwt.security.SecurityUser;
+import com.example.dockerjwt.security.TokenClaims;
+import com.example.dockerjwt.user.dto.ImportResult;
 import com.example.dockerjwt.user.dto.LoginRequest;
 import com.example.dockerjwt.user.dto.PasswordDto;
+import com.example.dockerjwt.user.dto.RefreshRequest;
 import com.example.dockerjwt.user.dto.UserTo;
 import com.example.dockerjwt.validation.ValidationErrorBuilder;
 import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.Errors;
@@ -27,7 +31,16 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @Slf4j
@@ -36,15 +49,21 @@ import javax.validation.Valid;
 public class UserController {
 
     static final String REST_URL = "/users";
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
     private final UserService userService;
-    private final AuthenticationManager authenticationManager;
+    private final UserImportService userImportService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final AuditLog auditLog;
+    private final ObjectMapper mapper;
 
-    private final ModelMapper modelMapper;
-
-    public UserController(UserService userService, AuthenticationManager authenticationManager, ModelMapper modelMapper) {
+    public UserController(UserService userService, UserImportService userImportService,
+                          LoginRateLimiter loginRateLimiter, AuditLog auditLog, ObjectMapper mapper) {
         this.userService = userService;
-        this.authenticationManager = authenticationManager;
-        this.modelMapper = modelMapper;
+        this.userImportService = userImportService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.auditLog = auditLog;
+        this.mapper = mapper;
     }
 
     @Operation(summary = "Login user with email and password to obtain JWT access token")
@@ -56,7 +75,9 @@ public class UserController {
                     content = @Content),
             @ApiResponse(responseCode = "401", description = "Wrong credentials",
                     content = @Content),
-            @ApiResponse(responseCode = "404", description = "User not found",
+            @ApiResponse(responseCode = "429", description = "Too many login attempts from this address or for this user",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations",
                     content = @Content)})
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(HttpServletRequest request, @Valid @RequestBody LoginRequest loginRequest, Errors errors) {
@@ -65,14 +86,18 @@ public class UserController {
             log.info("Validation error with request: " + request.getRequestURI());
             return ResponseEntity.badRequest().body(ValidationErrorBuilder.fromBindingErrors(errors));
         }
-        UsernamePasswordAuthenticationToken authInputToken =
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword());
+        loginRateLimiter.acquire(request.getRemoteAddr(), loginRequest.getEmail());
+        JWTToken token;
         try {
-            authenticationManager.authenticate(authInputToken);
+            token = userService.login(loginRequest);
         } catch (BadCredentialsException ex) {
+            loginRateLimiter.onFailure(loginRequest.getEmail());
+            auditLog.record(AuditEventType.LOGIN_FAILED, null, loginRequest.getEmail(), request.getRemoteAddr());
             throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials");
         }
-        return ResponseEntity.ok(userService.login(loginRequest));
+        loginRateLimiter.onSuccess(loginRequest.getEmail());
+        auditLog.record(AuditEventType.LOGIN, token.getUserId(), loginRequest.getEmail(), request.getRemoteAddr());
+        return ResponseEntity.ok(token);
     }
 
     @Operation(summary = "Sign up new user to work with API")
@@ -83,6 +108,8 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Invalid id supplied",
                     content = @Content),
             @ApiResponse(responseCode = "401", description = "Wrong credentials",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations",
                     content = @Content)})
     @PostMapping("/signup")
     @Validated
@@ -97,7 +124,50 @@ public class UserController {
         } catch (IllegalArgumentException e) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Not found role");
         }
-        return new ResponseEntity<>(userService.signup(loginRequest), HttpStatus.CREATED);
+        JWTToken token = userService.signup(loginRequest);
+        auditLog.record(AuditEventType.SIGNUP, token.getUserId(), loginRequest.getEmail(), request.getRemoteAddr());
+        return new ResponseEntity<>(token, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Import users from NDJSON or CSV (email,password,role), one result line per row")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Results streamed as rows are processed",
+                    content = { @Content(mediaType = NDJSON,
+                            schema = @Schema(implementation = ImportResult.class)) }),
+            @ApiResponse(responseCode = "401", description = "Wrong credentials",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Not an administrator",
+                    content = @Content)})
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV}, produces = NDJSON)
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Import users");
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV));
+        Charset charset = request.getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8 : Charset.forName(request.getCharacterEncoding());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), charset))) {
+            userImportService.importUsers(reader, csv, results -> writeResults(out, results, request.getRemoteAddr()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Flushed per batch, so the client sees progress and the response never holds more than one batch
+    private void writeResults(OutputStream out, List<ImportResult> results, String clientIp) {
+        try {
+            for (ImportResult result : results) {
+                out.write(mapper.writeValueAsBytes(result));
+                out.write('\n');
+                if (result.getStatus() == ImportResult.Status.CREATED) {
+                    auditLog.record(AuditEventType.IMPORT, result.getId(), result.getEmail(), clientIp);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Operation(summary = "Get information about current user")
@@ -113,8 +183,7 @@ public class UserController {
         if (auth != null) {
             Object principal = auth.getPrincipal();
             if (principal instanceof SecurityUser) {
-                User user = ((SecurityUser) principal).getUser();
-                return ResponseEntity.ok(convertToDto(user));
+                return ResponseEntity.ok(UserMapper.toUserTo((SecurityUser) principal));
             }
         }
         throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials");
@@ -128,6 +197,10 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Invalid password supplied",
                     content = @Content),
             @ApiResponse(responseCode = "401", description = "Wrong credentials",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Password was changed concurrently",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations",
                     content = @Content)
     })
     @PatchMapping("/me")
@@ -142,18 +215,60 @@ public class UserController {
         if (auth != null) {
             Object principal = auth.getPrincipal();
             if (principal instanceof SecurityUser) {
-                User user = ((SecurityUser) principal).getUser();
+                SecurityUser securityUser = (SecurityUser) principal;
+                // Checked and changed on a fresh copy: the principal is a shared snapshot and may be stale
+                User user = userService.getCurrentUserInfo(securityUser.getId());
                 if (!userService.checkIfValidOldPassword(user, passwordDto.getOldPassword())) {
                     throw new ApplicationException(HttpStatus.BAD_REQUEST, "Invalid password supplied");
                 }
-                return ResponseEntity.ok(userService.changeUserPassword(user, passwordDto.getNewPassword()));
+                JWTToken token = userService.changeUserPassword(user, passwordDto.getNewPassword());
+                auditLog.record(AuditEventType.PASSWORD_CHANGE, token.getUserId(), securityUser.getUsername(),
+                        request.getRemoteAddr());
+                return ResponseEntity.ok(token);
             }
         }
         throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials");
     }
 
-    private UserTo convertToDto(User user) {
-        return modelMapper.map(user, UserTo.class);
+    @Operation(summary = "Exchange refresh token for a new pair of access and refresh tokens")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Issued new tokens",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = JWTToken.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid refresh token supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "401", description = "Invalid, expired or reused refresh token",
+                    content = @Content)})
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(HttpServletRequest request, @Valid @RequestBody RefreshRequest refreshRequest, Errors errors) {
+        log.info("Refresh token");
+        if (errors.hasErrors()) {
+            log.info("Validation error with request: " + request.getRequestURI());
+            return ResponseEntity.badRequest().body(ValidationErrorBuilder.fromBindingErrors(errors));
+        }
+        return ResponseEntity.ok(userService.refresh(refreshRequest.getRefreshToken()));
+    }
+
+    @Operation(summary = "Logout current user, revoking the access token and the supplied refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Logged out",
+                    content = @Content),
+            @ApiResponse(responseCode = "401", description = "Wrong credentials",
+                    content = @Content)})
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshRequest refreshRequest) {
+        log.info("Logout current user");
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null) {
+            Object principal = auth.getPrincipal();
+            if (principal instanceof SecurityUser) {
+                TokenClaims accessToken = auth.getDetails() instanceof TokenClaims ? (TokenClaims) auth.getDetails() : null;
+                String refreshToken = refreshRequest == null ? null : refreshRequest.getRefreshToken();
+                userService.logout(((SecurityUser) principal).getId(), accessToken, refreshToken);
+                return ResponseEntity.noContent().build();
+            }
+        }
+        throw new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials");
     }
 
 }
@@ -0,0 +1,205 @@
+package com.example.dockerjwt.user;
+
+import com.example.dockerjwt.security.BoundedPasswordEncoder;
+import com.example.dockerjwt.security.PasswordHashingExecutor;
+import com.example.dockerjwt.user.dto.ImportResult;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Reads one row at a time and keeps at most one batch in memory: its passwords are hashed in parallel, its users
+// inserted in one statement, and its results handed to the sink before the next batch is read
+@Service
+@Slf4j
+public class UserImportService {
+    private static final String CSV_HEADER = "email,password,role";
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Validator validator;
+    private final ObjectMapper mapper;
+    private final Map<ImportResult.Status, Counter> rowCounters = new EnumMap<>(ImportResult.Status.class);
+    private final int batchSize;
+
+    public UserImportService(UserRepository userRepository, BoundedPasswordEncoder passwordEncoder,
+                             PasswordHashingExecutor passwordHashingExecutor, Validator validator, ObjectMapper mapper,
+                             MeterRegistry meterRegistry, @Value("${user-import.batch-size}") int batchSize) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.validator = validator;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+        for (ImportResult.Status status : ImportResult.Status.values()) {
+            rowCounters.put(status, meterRegistry.counter("user.import.rows", "result",
+                    status.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    public void importUsers(BufferedReader reader, boolean csv, Consumer<List<ImportResult>> sink) throws IOException {
+        List<Row> batch = new ArrayList<>(batchSize);
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || csv && lineNumber == 1 && CSV_HEADER.equalsIgnoreCase(line.strip())) {
+                continue;
+            }
+            batch.add(parse(lineNumber, line, csv));
+            if (batch.size() == batchSize) {
+                sink.accept(importBatch(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(importBatch(batch));
+        }
+    }
+
+    private Row parse(int line, String text, boolean csv) {
+        LoginRequest request;
+        try {
+            request = csv ? parseCsv(text) : mapper.readValue(text, LoginRequest.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new Row(line, null, "Malformed row");
+        }
+        Set<ConstraintViolation<LoginRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return new Row(line, request, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (Arrays.stream(UserRole.values()).noneMatch(role -> role.name().equals(request.getRole()))) {
+            return new Row(line, request, "Not found role");
+        }
+        return new Row(line, request, null);
+    }
+
+    // Neither an email nor a role can contain a comma, so any comma between the first and the last is the password's
+    private static LoginRequest parseCsv(String text) {
+        int first = text.indexOf(',');
+        int last = text.lastIndexOf(',');
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("Expected email,password,role");
+        }
+        LoginRequest request = new LoginRequest();
+        request.setEmail(text.substring(0, first).strip());
+        request.setPassword(text.substring(first + 1, last));
+        request.setRole(text.substring(last + 1).strip());
+        return request;
+    }
+
+    private List<ImportResult> importBatch(List<Row> rows) {
+        ImportResult[] results = new ImportResult[rows.size()];
+        List<CompletableFuture<String>> hashes = hashPasswords(rows, results);
+        List<User> users = new ArrayList<>(rows.size());
+        List<Integer> positions = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (results[i] != null) {
+                continue;
+            }
+            try {
+                String hash = hashes.get(i).join();
+                users.add(new User(UuidV7Generator.generate(), row.request.getEmail(), hash, row.request.getRole()));
+                positions.add(i);
+            } catch (CompletionException e) {
+                results[i] = result(row, ImportResult.Status.FAILED, null, e.getCause().getMessage());
+            }
+        }
+        Set<UUID> inserted = users.isEmpty() ? Set.of() : insert(users);
+        for (int j = 0; j < users.size(); j++) {
+            User user = users.get(j);
+            Row row = rows.get(positions.get(j));
+            ImportResult result;
+            if (inserted == null) {
+                result = result(row, ImportResult.Status.FAILED, null, "Unable to add user");
+            } else if (inserted.contains(user.getId())) {
+                result = result(row, ImportResult.Status.CREATED, user.getId(), null);
+            } else {
+                result = result(row, ImportResult.Status.EXISTS, null, null);
+            }
+            results[positions.get(j)] = result;
+        }
+        for (ImportResult result : results) {
+            rowCounters.get(result.getStatus()).increment();
+        }
+        return Arrays.asList(results);
+    }
+
+    // No more hashes in flight than the pool has threads, so logins and signups queue behind a few imports at most
+    private List<CompletableFuture<String>> hashPasswords(List<Row> rows, ImportResult[] results) {
+        Semaphore window = new Semaphore(passwordHashingExecutor.getPoolSize());
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (row.error != null) {
+                results[i] = result(row, ImportResult.Status.INVALID, null, row.error);
+                hashes.add(null);
+                continue;
+            }
+            window.acquireUninterruptibly();
+            CompletableFuture<String> hash;
+            try {
+                hash = passwordEncoder.encodeAsync(row.request.getPassword());
+            } catch (ApplicationException e) {
+                hash = CompletableFuture.failedFuture(e);
+            }
+            hashes.add(hash.whenComplete((encoded, e) -> window.release()));
+        }
+        return hashes;
+    }
+
+    private Set<UUID> insert(List<User> users) {
+        try {
+            return userRepository.addUsers(users);
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} users not written", users.size(), e);
+            return null;
+        }
+    }
+
+    private static ImportResult result(Row row, ImportResult.Status status, UUID id, String error) {
+        return new ImportResult(row.line, row.request == null ? null : row.request.getEmail(), status, id, error);
+    }
+
+    private static final class Row {
+        private final int line;
+        private final LoginRequest request;
+        private final String error;
+
+        private Row(int line, LoginRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+}
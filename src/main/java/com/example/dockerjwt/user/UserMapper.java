@@ -0,0 +1,28 @@
+package com.example.dockerjwt.user;
+
+import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.security.SecurityUser;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.example.dockerjwt.user.dto.UserTo;
+
+// Plain field copies: no reflection, no type maps, nothing to warm up after startup
+public class UserMapper {
+    private UserMapper() {
+    }
+
+    public static UserTo toUserTo(User user) {
+        return new UserTo(user.getEmail(), user.getId() == null ? null : user.getId().toString());
+    }
+
+    public static UserTo toUserTo(SecurityUser user) {
+        return new UserTo(user.getEmail(), user.getId() == null ? null : user.getId().toString());
+    }
+
+    public static User toUser(LoginRequest loginRequest, String encodedPassword) {
+        return new User(loginRequest.getEmail(), encodedPassword, loginRequest.getRole());
+    }
+
+    public static JWTToken toJWTToken(User user, String accessToken, String refreshToken) {
+        return new JWTToken(user.getId(), accessToken, refreshToken);
+    }
+}
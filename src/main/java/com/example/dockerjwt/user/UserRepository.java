@@ -1,13 +1,26 @@
 package com.example.dockerjwt.user;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 public interface UserRepository {
     Optional<User> addUser(User user);
 
-    Optional<User> getUser(String userId);
+    // Users must carry their ids; returns the ids actually inserted, the rest clashed with an existing email
+    Set<UUID> addUsers(List<User> users);
+
+    // May come from the second-level cache, up to its TTL behind a change made on another instance
+    Optional<User> getUser(UUID userId);
+
+    // Always read from the database; for checking or changing credentials
+    Optional<User> getCurrentUser(UUID userId);
 
     Optional<User> getUserByEmail(String email);
 
     User saveUser(User user);
+
+    // Replaces the hash only while it is still the one verified; false when the password changed in the meantime
+    boolean replacePassword(UUID userId, String verifiedHash, String newHash);
 }
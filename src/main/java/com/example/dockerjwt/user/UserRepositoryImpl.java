@@ -1,16 +1,50 @@
 package com.example.dockerjwt.user;
 
+import com.example.dockerjwt.security.PrincipalCache;
+import com.example.dockerjwt.security.TokenVersionRegistry;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.EntityManagerFactory;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 
 @Repository
 public class UserRepositoryImpl implements UserRepository {
+    // One statement per batch: ON CONFLICT covers the case-insensitive email index, RETURNING names the rows inserted
+    private static final String INSERT_USERS = "INSERT INTO users (id, email, password, role) "
+            + "SELECT CAST(id AS uuid), email, password, role "
+            + "FROM unnest(CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[])) "
+            + "AS t (id, email, password, role) "
+            + "ON CONFLICT DO NOTHING RETURNING id";
+    // Leaves the version alone: a password change read before the rehash should still win over it
+    private static final String REPLACE_PASSWORD = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
 
     private final JpaUserRepository jpaUserRepository;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public UserRepositoryImpl(JpaUserRepository jpaUserRepository) {
+    public UserRepositoryImpl(JpaUserRepository jpaUserRepository, PrincipalCache principalCache,
+                              TokenVersionRegistry tokenVersionRegistry, JdbcTemplate jdbcTemplate,
+                              EntityManagerFactory entityManagerFactory) {
         this.jpaUserRepository = jpaUserRepository;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Override
@@ -24,10 +58,39 @@ public class UserRepositoryImpl implements UserRepository {
     }
 
     @Override
-    public Optional<User> getUser(String userId) {
+    public Set<UUID> addUsers(List<User> users) {
+        return jdbcTemplate.execute((ConnectionCallback<Set<UUID>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USERS)) {
+                statement.setArray(1, textArray(connection, users, user -> user.getId().toString()));
+                statement.setArray(2, textArray(connection, users, User::getEmail));
+                statement.setArray(3, textArray(connection, users, User::getPassword));
+                statement.setArray(4, textArray(connection, users, User::getRole));
+                Set<UUID> ids = new HashSet<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getObject(1, UUID.class));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static Array textArray(Connection connection, List<User> users, Function<User, String> column)
+            throws SQLException {
+        return connection.createArrayOf("text", users.stream().map(column).toArray());
+    }
+
+    @Override
+    public Optional<User> getUser(UUID userId) {
         return jpaUserRepository.findById(userId);
     }
 
+    @Override
+    public Optional<User> getCurrentUser(UUID userId) {
+        return jpaUserRepository.findCurrentById(userId);
+    }
+
     @Override
     public Optional<User> getUserByEmail(String email) {
         return jpaUserRepository.findByEmail(email);
@@ -36,8 +99,20 @@ public class UserRepositoryImpl implements UserRepository {
     @Override
     public User saveUser(User user) {
         jpaUserRepository.save(user);
+        principalCache.evict(user.getId());
+        tokenVersionRegistry.update(user.getId(), user.getTokenVersion());
         return user;
     }
 
+    @Override
+    public boolean replacePassword(UUID userId, String verifiedHash, String newHash) {
+        if (jdbcTemplate.update(REPLACE_PASSWORD, newHash, userId, verifiedHash) == 0) {
+            return false;
+        }
+        // Hibernate never sees this statement, so the cached entity would keep the old hash until its TTL
+        entityManagerFactory.getCache().evict(User.class, userId);
+        return true;
+    }
+
 
 }
@@ -1,56 +1,106 @@
 package com.example.dockerjwt.user;
 
 import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.security.IssuedRefreshToken;
 import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.RefreshTokenService;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import com.example.dockerjwt.security.TokenClaims;
 import com.example.dockerjwt.user.dto.LoginRequest;
 import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.UUID;
+
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JWTUtil jwtUtil;
+    private final PasswordRehasher passwordRehasher;
+    private final RefreshTokenService refreshTokenService;
+    private final RevokedTokenStore revokedTokens;
+    // Unknown emails are checked against this hash, so they cost the same single hash as a wrong password
+    private final String unknownUserHash;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JWTUtil jwtUtil) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JWTUtil jwtUtil,
+                       PasswordRehasher passwordRehasher, RefreshTokenService refreshTokenService,
+                       RevokedTokenStore revokedTokens) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.passwordRehasher = passwordRehasher;
+        this.refreshTokenService = refreshTokenService;
+        this.revokedTokens = revokedTokens;
+        this.unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
+    // One lookup and one hash whether or not the email exists; the loaded user is reused for the tokens
     public JWTToken login(LoginRequest loginRequest) {
-        User user = getByEmail(loginRequest.getEmail());
-        String token = jwtUtil.generateToken(user.getId());
-        return new JWTToken(user.getId(), token);
+        Optional<User> found = userRepository.getUserByEmail(loginRequest.getEmail());
+        String hash = found.map(User::getPassword).orElse(unknownUserHash);
+        if (!passwordEncoder.matches(loginRequest.getPassword(), hash) || found.isEmpty()) {
+            throw new BadCredentialsException("Wrong credentials");
+        }
+        User user = found.get();
+        passwordRehasher.rehashIfNeeded(user, loginRequest.getPassword());
+        String token = jwtUtil.generateToken(user);
+        return UserMapper.toJWTToken(user, token, refreshTokenService.issue(user.getId()));
     }
 
     public JWTToken signup(LoginRequest loginRequest) {
-        User user = new User(loginRequest.getEmail(), passwordEncoder.encode(loginRequest.getPassword()), loginRequest.getRole());
+        User user = UserMapper.toUser(loginRequest, passwordEncoder.encode(loginRequest.getPassword()));
         User registratedUser = userRepository.addUser(user).orElseThrow(
                 () -> new ApplicationException(HttpStatus.CONFLICT, "Unable to add user")
         );
-        String token = jwtUtil.generateToken(registratedUser.getId());
-        return new JWTToken(registratedUser.getId(), token);
+        String token = jwtUtil.generateToken(registratedUser);
+        return UserMapper.toJWTToken(registratedUser, token, refreshTokenService.issue(registratedUser.getId()));
     }
 
-    public User getUserInfo(String userId) {
+    public User getUserInfo(UUID userId) {
         return userRepository.getUser(userId).orElseThrow(() ->
                 new ApplicationException(HttpStatus.NOT_FOUND, "Not found"));
     }
 
-    public User getByEmail(String email) {
-        return userRepository.getUserByEmail(email).orElseThrow(() ->
+    // The old password is checked and replaced on this copy, so it must not come from the second-level cache
+    public User getCurrentUserInfo(UUID userId) {
+        return userRepository.getCurrentUser(userId).orElseThrow(() ->
                 new ApplicationException(HttpStatus.NOT_FOUND, "Not found"));
     }
 
     public JWTToken changeUserPassword(User user, String password) {
         user.setPassword(passwordEncoder.encode(password));
-        userRepository.saveUser(user);
-        String token = jwtUtil.generateToken(user.getId());
-        return new JWTToken(user.getId(), token);
+        user.revokeTokens();
+        try {
+            userRepository.saveUser(user);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ApplicationException(HttpStatus.CONFLICT, "Password was changed concurrently");
+        }
+        refreshTokenService.revokeAll(user.getId());
+        String token = jwtUtil.generateToken(user);
+        return UserMapper.toJWTToken(user, token, refreshTokenService.issue(user.getId()));
+    }
+
+    public JWTToken refresh(String refreshToken) {
+        IssuedRefreshToken issued = refreshTokenService.rotate(refreshToken);
+        User user = getUserInfo(issued.getUserId());
+        String token = jwtUtil.generateToken(user);
+        return UserMapper.toJWTToken(user, token, issued.getValue());
+    }
+
+    public void logout(UUID userId, TokenClaims accessToken, String refreshToken) {
+        if (accessToken != null) {
+            revokedTokens.revoke(accessToken);
+        }
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken, userId);
+        }
     }
 
     public boolean checkIfValidOldPassword(User user, String oldPassword) {
@@ -0,0 +1,12 @@
+package com.example.dockerjwt.user;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface UserTokenVersion {
+    UUID getId();
+
+    int getTokenVersion();
+
+    Instant getTokenVersionUpdatedAt();
+}
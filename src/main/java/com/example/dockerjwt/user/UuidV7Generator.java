@@ -0,0 +1,27 @@
+package com.example.dockerjwt.user;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// Time-ordered UUIDs (RFC 9562 version 7): new rows land at the right edge of the primary key index
+public class UuidV7Generator implements IdentifierGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static UUID generate() {
+        long timestamp = System.currentTimeMillis();
+        long randomA = RANDOM.nextInt(1 << 12);
+        long randomB = RANDOM.nextLong();
+        long mostSigBits = (timestamp << 16) | (0x7L << 12) | randomA;
+        long leastSigBits = (randomB & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return generate();
+    }
+}
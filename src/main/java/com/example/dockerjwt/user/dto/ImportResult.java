@@ -0,0 +1,29 @@
+package com.example.dockerjwt.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResult {
+    private int line;
+    private String email;
+    private Status status;
+    private UUID id;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        EXISTS,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.dockerjwt.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.validation.constraints.NotBlank;
+
+@Setter
+@Getter
+@ToString
+public class RefreshRequest {
+    @JsonProperty("refresh_token")
+    @NotBlank(message = "Refresh token can't be blank")
+    @ToString.Exclude
+    private String refreshToken;
+}
@@ -1,5 +1,6 @@
 package com.example.dockerjwt.validation.exceptions;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -18,12 +19,18 @@ import javax.validation.ConstraintViolationException;
 @Slf4j
 public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public RestResponseEntityExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler({ ApplicationException.class })
     @ResponseBody
     public ResponseEntity<Object> handleApplicationException(final ApplicationException ex, final WebRequest request) {
         log.info(ex.getClass().getName());
         final ApiError apiError = new ApiError(ex.getLocalizedMessage(), ex.getMessage(), ex.getStatus());
-        return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.getStatus());
+        return respond(apiError, ex);
     }
 
     @ExceptionHandler({ AuthenticationException.class })
@@ -31,7 +38,7 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     public ResponseEntity<Object> handleAuthenticationException(Exception ex) {
         log.info(ex.getClass().getName());
         final ApiError apiError = new ApiError(ex.getLocalizedMessage(), ex.getMessage(), HttpStatus.UNAUTHORIZED);
-        return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.getStatus());
+        return respond(apiError, ex);
     }
 
     @ExceptionHandler({ ConstraintViolationException.class })
@@ -39,7 +46,7 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     public ResponseEntity<Object> handleConstraintViolation(final ConstraintViolationException ex, final WebRequest request) {
         log.info(ex.getClass().getName());
         final ApiError apiError = new ApiError(ex.getLocalizedMessage(), ex.getMessage(), HttpStatus.BAD_REQUEST);
-        return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.getStatus());
+        return respond(apiError, ex);
     }
 
     @ExceptionHandler({ MethodArgumentTypeMismatchException.class })
@@ -47,7 +54,7 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         log.info(ex.getClass().getName());
         final String error = ex.getName() + " should be of type " + ex.getRequiredType();
         final ApiError apiError = new ApiError(error, ex.getLocalizedMessage(), HttpStatus.BAD_REQUEST);
-        return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.getStatus());
+        return respond(apiError, ex);
     }
 
     @ExceptionHandler({ Exception.class })
@@ -55,6 +62,24 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         log.info(ex.getClass().getName());
         log.error("error", ex);
         final ApiError apiError = new ApiError("error occurred", ex.getLocalizedMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        return respond(apiError, ex);
+    }
+
+    // Spring MVC's own exceptions, such as unreadable bodies or unsupported methods, are resolved by the base class
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                             HttpStatus status, WebRequest request) {
+        count(status, ex);
+        return super.handleExceptionInternal(ex, body, headers, status, request);
+    }
+
+    private ResponseEntity<Object> respond(ApiError apiError, Exception ex) {
+        count(apiError.getStatus(), ex);
         return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.getStatus());
     }
+
+    private void count(HttpStatus status, Exception ex) {
+        meterRegistry.counter("api.errors", "status", String.valueOf(status.value()),
+                "exception", ex.getClass().getSimpleName()).increment();
+    }
 }
@@ -0,0 +1,9 @@
+-- Schema as generated by ddl-auto=update before Flyway; existing databases are baselined at this version
+CREATE TABLE users (
+    id       varchar(36)  NOT NULL,
+    email    varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    role     varchar(255),
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT users_email_key UNIQUE (email)
+);
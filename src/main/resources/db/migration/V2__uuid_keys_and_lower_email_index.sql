@@ -0,0 +1,33 @@
+-- Existing uuid2 ids are valid uuid literals and keep their values; new rows get time-ordered UUIDv7 ids
+ALTER TABLE users
+    ALTER COLUMN id TYPE uuid USING id::uuid;
+
+-- The case-sensitive unique constraint on users.email, named by Hibernate on baselined databases, is replaced by the
+-- lower(email) index
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.conrelid = 'users'::regclass AND c.contype = 'u' AND a.attname = 'email'
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+-- Emails that differ only in case must be merged by hand first; name them rather than fail on the index
+DO $$
+DECLARE
+    duplicates text;
+BEGIN
+    SELECT string_agg(email, ', ') INTO duplicates
+    FROM (SELECT lower(email) AS email FROM users GROUP BY lower(email) HAVING count(*) > 1) d;
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'Emails differ only in case, resolve these users before migrating: %', duplicates;
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX users_email_lower_idx ON users (lower(email));
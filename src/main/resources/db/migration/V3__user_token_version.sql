@@ -0,0 +1,8 @@
+-- Bumped on password change to revoke every token issued before it
+ALTER TABLE users
+    ADD COLUMN token_version            integer NOT NULL DEFAULT 0,
+    ADD COLUMN token_version_updated_at timestamp;
+
+-- TokenVersionRegistry polls for recently revoked users
+CREATE INDEX users_token_version_updated_at_idx ON users (token_version_updated_at)
+    WHERE token_version_updated_at IS NOT NULL;
@@ -0,0 +1,16 @@
+-- Refresh tokens go with their user
+CREATE TABLE refresh_tokens (
+    id         uuid        NOT NULL,
+    user_id    uuid        NOT NULL,
+    family_id  uuid        NOT NULL,
+    token_hash varchar(64) NOT NULL,
+    expires_at timestamp   NOT NULL,
+    used_at    timestamp,
+    revoked    boolean     NOT NULL,
+    CONSTRAINT refresh_tokens_pkey PRIMARY KEY (id),
+    CONSTRAINT refresh_tokens_token_hash_key UNIQUE (token_hash),
+    CONSTRAINT refresh_tokens_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX refresh_tokens_family_id_idx ON refresh_tokens (family_id);
+CREATE INDEX refresh_tokens_user_id_idx ON refresh_tokens (user_id);
@@ -0,0 +1,12 @@
+-- Append-only, written in batches by AuditLog. No foreign key: failed logins have no user, and the record outlives one.
+CREATE TABLE audit_events (
+    id          uuid        NOT NULL,
+    type        varchar(32) NOT NULL,
+    user_id     uuid,
+    email       varchar(255),
+    client_ip   varchar(45),
+    occurred_at timestamp   NOT NULL,
+    CONSTRAINT audit_events_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX audit_events_user_id_idx ON audit_events (user_id, occurred_at);
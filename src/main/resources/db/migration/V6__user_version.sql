@@ -0,0 +1,3 @@
+-- Optimistic lock for User: a write based on a stale read fails instead of restoring the old password and token version
+ALTER TABLE users
+    ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- ES256 key ring shared by every instance, see SigningKeyRing. Private keys are stored encrypted with a key derived
+-- from JWT_SECRET; activation times are aligned to the rotation interval, so instances racing to create the same key
+-- collide on activates_at and all keep the first one.
+CREATE TABLE signing_keys (
+    kid          varchar(36) NOT NULL,
+    activates_at timestamp   NOT NULL,
+    public_key   bytea       NOT NULL,
+    private_key  bytea       NOT NULL,
+    CONSTRAINT signing_keys_pkey PRIMARY KEY (kid),
+    CONSTRAINT signing_keys_activates_at_key UNIQUE (activates_at)
+);
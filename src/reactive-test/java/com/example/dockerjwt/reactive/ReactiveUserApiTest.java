@@ -0,0 +1,167 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.user.UserRole;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.example.dockerjwt.user.dto.PasswordDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Runs against the database the servlet tests use; rows are committed, so every test signs up its own user
+@SpringBootTest(classes = ReactiveJwtApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveJwtApplication.PROFILE)
+class ReactiveUserApiTest {
+    private static final String REST_URL = ReactiveUserController.REST_URL + '/';
+    private static final String USER_PASSWORD = "password";
+    private static final ParameterizedTypeReference<Map<String, Object>> TOKEN_BODY =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private WebTestClient client;
+
+    @DynamicPropertySource
+    static void r2dbcUrl(DynamicPropertyRegistry registry) {
+        String jdbcUrl = System.getenv("JDBC_DATABASE_URL");
+        if (jdbcUrl != null) {
+            registry.add("spring.r2dbc.url", () -> jdbcUrl.replaceFirst("^jdbc:", "r2dbc:"));
+        }
+    }
+
+    @Test
+    void signupThenLoginAndMe() {
+        String email = uniqueEmail();
+        signup(email);
+        Map<String, Object> token = login(email, USER_PASSWORD);
+        client.get().uri(REST_URL + "me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("access_token"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo(email);
+    }
+
+    @Test
+    void duplicateSignupIsConflict() {
+        String email = uniqueEmail();
+        signup(email);
+        client.post().uri(REST_URL + "signup").bodyValue(loginRequest(email, USER_PASSWORD))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void invalidSignupIsUnprocessable() {
+        client.post().uri(REST_URL + "signup").bodyValue(loginRequest("", USER_PASSWORD))
+                .exchange()
+                .expectStatus().isEqualTo(422);
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() {
+        String email = uniqueEmail();
+        signup(email);
+        client.post().uri(REST_URL + "login").bodyValue(loginRequest(email, "wrong-password"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.message").isEqualTo("Wrong credentials");
+    }
+
+    @Test
+    void invalidTokenIsBadRequest() {
+        client.get().uri(REST_URL + "me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void missingTokenIsUnauthorized() {
+        client.get().uri(REST_URL + "me")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void changePasswordRevokesRefreshTokens() {
+        String email = uniqueEmail();
+        Map<String, Object> token = signup(email);
+        PasswordDto passwords = new PasswordDto();
+        passwords.setOldPassword(USER_PASSWORD);
+        passwords.setNewPassword("new-password");
+        client.patch().uri(REST_URL + "me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("access_token"))
+                .bodyValue(passwords)
+                .exchange()
+                .expectStatus().isOk();
+        client.post().uri(REST_URL + "token/refresh").bodyValue(Map.of("refresh_token", token.get("refresh_token")))
+                .exchange()
+                .expectStatus().isUnauthorized();
+        login(email, "new-password");
+    }
+
+    @Test
+    void refreshTokenReuseIsUnauthorized() {
+        Map<String, Object> token = signup(uniqueEmail());
+        client.post().uri(REST_URL + "token/refresh").bodyValue(Map.of("refresh_token", token.get("refresh_token")))
+                .exchange()
+                .expectStatus().isOk();
+        client.post().uri(REST_URL + "token/refresh").bodyValue(Map.of("refresh_token", token.get("refresh_token")))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void logoutRevokesAccessToken() {
+        Map<String, Object> token = signup(uniqueEmail());
+        client.post().uri(REST_URL + "logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("access_token"))
+                .bodyValue(Map.of("refresh_token", token.get("refresh_token")))
+                .exchange()
+                .expectStatus().isNoContent();
+        client.get().uri(REST_URL + "me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("access_token"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private Map<String, Object> signup(String email) {
+        Map<String, Object> token = client.post().uri(REST_URL + "signup").bodyValue(loginRequest(email, USER_PASSWORD))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TOKEN_BODY).returnResult().getResponseBody();
+        assertNotNull(token);
+        return token;
+    }
+
+    private Map<String, Object> login(String email, String password) {
+        Map<String, Object> token = client.post().uri(REST_URL + "login").bodyValue(loginRequest(email, password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TOKEN_BODY).returnResult().getResponseBody();
+        assertNotNull(token);
+        return token;
+    }
+
+    private static LoginRequest loginRequest(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        request.setRole(UserRole.ROLE_USER.toString());
+        return request;
+    }
+
+    private static String uniqueEmail() {
+        return "reactive-" + UUID.randomUUID() + "@example.com";
+    }
+}
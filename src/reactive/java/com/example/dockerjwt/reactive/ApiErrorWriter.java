@@ -0,0 +1,35 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.validation.exceptions.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Error bodies for responses finished by filters and the entry point, which run before any controller advice
+@Component
+public class ApiErrorWriter {
+    private final ObjectMapper mapper;
+
+    public ApiErrorWriter(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body;
+        try {
+            body = mapper.writeValueAsBytes(new ApiError(message, message, status));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.IssuedRefreshToken;
+import com.example.dockerjwt.user.UuidV7Generator;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.r2dbc.spi.Row;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+// Port of RefreshTokenService over the same refresh_tokens table
+@Service
+@Slf4j
+public class R2dbcRefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final DatabaseClient client;
+    private final TransactionalOperator transactional;
+    private final long refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    public R2dbcRefreshTokenService(DatabaseClient client, TransactionalOperator transactional,
+                                    @Value("${jwt.refresh-expiration}") Long refreshExpiration) {
+        this.client = client;
+        this.transactional = transactional;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    public Mono<String> issue(UUID userId) {
+        return issue(userId, UuidV7Generator.generate());
+    }
+
+    // Reuse of an already rotated token means it leaked: the whole family is revoked. The outcome is carried out of
+    // the transaction as a value, so the revocation commits even though the caller gets an error.
+    public Mono<IssuedRefreshToken> rotate(String value) {
+        Instant now = Instant.now();
+        return findByTokenHash(hash(value))
+                .flatMap(token -> markUsed(token.id, now).flatMap(updated -> {
+                    if (updated == 0) {
+                        log.warn("Refresh token reuse detected for user {}, family {} revoked", token.userId, token.familyId);
+                        return revokeFamily(token.familyId).thenReturn(Rotation.failed("Invalid refresh token"));
+                    }
+                    if (!token.expiresAt.isAfter(now)) {
+                        return Mono.just(Rotation.failed("Expired refresh token"));
+                    }
+                    return issue(token.userId, token.familyId)
+                            .map(issued -> Rotation.succeeded(new IssuedRefreshToken(token.userId, issued)));
+                }))
+                .defaultIfEmpty(Rotation.failed("Invalid refresh token"))
+                .as(transactional::transactional)
+                .flatMap(rotation -> rotation.issued == null
+                        ? Mono.error(new ApplicationException(HttpStatus.UNAUTHORIZED, rotation.failure))
+                        : Mono.just(rotation.issued));
+    }
+
+    public Mono<Void> revoke(String value, UUID userId) {
+        return findByTokenHash(hash(value))
+                .filter(token -> token.userId.equals(userId))
+                .flatMap(token -> revokeFamily(token.familyId))
+                .then();
+    }
+
+    public Mono<Void> revokeAll(UUID userId) {
+        return client.sql("UPDATE refresh_tokens SET revoked = true WHERE user_id = :userId")
+                .bind("userId", userId)
+                .fetch().rowsUpdated()
+                .then();
+    }
+
+    // Runs on the scheduler thread, never on an event loop, so waiting for the delete is fine
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval}")
+    public void purgeExpired() {
+        Integer deleted = client.sql("DELETE FROM refresh_tokens WHERE expires_at < :now")
+                .bind("now", R2dbcUserRepository.toTimestamp(Instant.now()))
+                .fetch().rowsUpdated()
+                .block();
+        log.debug("Expired refresh tokens purged: {}", deleted);
+    }
+
+    private Mono<String> issue(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = Instant.now().plus(refreshExpiration, ChronoUnit.MINUTES);
+        return client.sql("INSERT INTO refresh_tokens (id, user_id, family_id, token_hash, expires_at, revoked) "
+                        + "VALUES (:id, :userId, :familyId, :tokenHash, :expiresAt, false)")
+                .bind("id", UuidV7Generator.generate())
+                .bind("userId", userId)
+                .bind("familyId", familyId)
+                .bind("tokenHash", hash(value))
+                .bind("expiresAt", R2dbcUserRepository.toTimestamp(expiresAt))
+                .fetch().rowsUpdated()
+                .thenReturn(value);
+    }
+
+    private Mono<StoredToken> findByTokenHash(String tokenHash) {
+        return client.sql("SELECT id, user_id, family_id, expires_at FROM refresh_tokens WHERE token_hash = :tokenHash")
+                .bind("tokenHash", tokenHash)
+                .map((row, metadata) -> StoredToken.of(row))
+                .one();
+    }
+
+    private Mono<Integer> markUsed(UUID id, Instant now) {
+        return client.sql("UPDATE refresh_tokens SET used_at = :now WHERE id = :id AND used_at IS NULL AND revoked = false")
+                .bind("id", id)
+                .bind("now", R2dbcUserRepository.toTimestamp(now))
+                .fetch().rowsUpdated();
+    }
+
+    private Mono<Integer> revokeFamily(UUID familyId) {
+        return client.sql("UPDATE refresh_tokens SET revoked = true WHERE family_id = :familyId")
+                .bind("familyId", familyId)
+                .fetch().rowsUpdated();
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.US_ASCII));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class StoredToken {
+        private final UUID id;
+        private final UUID userId;
+        private final UUID familyId;
+        private final Instant expiresAt;
+
+        private StoredToken(UUID id, UUID userId, UUID familyId, Instant expiresAt) {
+            this.id = id;
+            this.userId = userId;
+            this.familyId = familyId;
+            this.expiresAt = expiresAt;
+        }
+
+        private static StoredToken of(Row row) {
+            return new StoredToken(row.get("id", UUID.class), row.get("user_id", UUID.class),
+                    row.get("family_id", UUID.class),
+                    R2dbcUserRepository.toInstant(row.get("expires_at", LocalDateTime.class)));
+        }
+    }
+
+    private static final class Rotation {
+        private final IssuedRefreshToken issued;
+        private final String failure;
+
+        private Rotation(IssuedRefreshToken issued, String failure) {
+            this.issued = issued;
+            this.failure = failure;
+        }
+
+        private static Rotation succeeded(IssuedRefreshToken issued) {
+            return new Rotation(issued, null);
+        }
+
+        private static Rotation failed(String failure) {
+            return new Rotation(null, failure);
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.SigningKeyStore;
+import com.example.dockerjwt.security.StoredSigningKey;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Blocks: the key ring only reads and writes keys at startup and on its scheduled refresh, never on an event loop.
+// Read while the context starts, so it waits for Flyway, which Boot orders only before JDBC users.
+@Repository
+@DependsOnDatabaseInitialization
+public class R2dbcSigningKeyStore implements SigningKeyStore {
+    private final DatabaseClient client;
+
+    public R2dbcSigningKeyStore(DatabaseClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public List<StoredSigningKey> findAll() {
+        return client.sql("SELECT kid, activates_at, public_key, private_key FROM signing_keys")
+                .map((row, metadata) -> new StoredSigningKey(row.get("kid", String.class),
+                        R2dbcUserRepository.toInstant(row.get("activates_at", LocalDateTime.class)),
+                        bytes(row.get("public_key", ByteBuffer.class)), bytes(row.get("private_key", ByteBuffer.class))))
+                .all()
+                .collectList()
+                .block();
+    }
+
+    @Override
+    public void insertIfAbsent(StoredSigningKey key) {
+        client.sql("INSERT INTO signing_keys (kid, activates_at, public_key, private_key) "
+                        + "VALUES (:kid, :activatesAt, :publicKey, :privateKey) ON CONFLICT (activates_at) DO NOTHING")
+                .bind("kid", key.getKid())
+                .bind("activatesAt", R2dbcUserRepository.toTimestamp(key.getActivatesAt()))
+                .bind("publicKey", ByteBuffer.wrap(key.getPublicKey()))
+                .bind("privateKey", ByteBuffer.wrap(key.getPrivateKey()))
+                .fetch().rowsUpdated()
+                .block();
+    }
+
+    @Override
+    public void deleteSupersededBefore(Instant cutoff) {
+        client.sql("DELETE FROM signing_keys k WHERE EXISTS (SELECT 1 FROM signing_keys s "
+                        + "WHERE s.activates_at > k.activates_at AND s.activates_at < :cutoff)")
+                .bind("cutoff", R2dbcUserRepository.toTimestamp(cutoff))
+                .fetch().rowsUpdated()
+                .block();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UuidV7Generator;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.r2dbc.spi.Row;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+// Same rows as the JPA repository. Plain SQL through DatabaseClient: the entity classes carry JPA mappings only.
+@Repository
+public class R2dbcUserRepository {
+    private static final String SELECT = "SELECT id, email, password, role, token_version, token_version_updated_at, "
+            + "version FROM users ";
+
+    private final DatabaseClient client;
+
+    public R2dbcUserRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    // Empty when the email is taken, like the JPA repository's empty Optional
+    public Mono<User> addUser(User user) {
+        User created = new User(UuidV7Generator.generate(), user.getEmail(), user.getPassword(), user.getRole());
+        return client.sql("INSERT INTO users (id, email, password, role, token_version) "
+                        + "VALUES (:id, :email, :password, :role, 0) ON CONFLICT DO NOTHING")
+                .bind("id", created.getId())
+                .bind("email", created.getEmail())
+                .bind("password", created.getPassword())
+                .bind("role", created.getRole())
+                .fetch().rowsUpdated()
+                .filter(rows -> rows > 0)
+                .map(rows -> created);
+    }
+
+    public Mono<User> getUser(UUID userId) {
+        return client.sql(SELECT + "WHERE id = :id")
+                .bind("id", userId)
+                .map((row, metadata) -> toUser(row))
+                .one();
+    }
+
+    public Mono<User> getUserByEmail(String email) {
+        return client.sql(SELECT + "WHERE lower(email) = lower(:email)")
+                .bind("email", email)
+                .map((row, metadata) -> toUser(row))
+                .one();
+    }
+
+    // Checks and bumps the row version like Hibernate's @Version, so a write based on a stale read fails
+    public Mono<User> saveUser(User user) {
+        DatabaseClient.GenericExecuteSpec update = client.sql("UPDATE users SET email = :email, password = :password, "
+                        + "role = :role, token_version = :tokenVersion, token_version_updated_at = :versionUpdatedAt, "
+                        + "version = version + 1 WHERE id = :id AND version = :version")
+                .bind("id", user.getId())
+                .bind("email", user.getEmail())
+                .bind("password", user.getPassword())
+                .bind("role", user.getRole())
+                .bind("tokenVersion", user.getTokenVersion())
+                .bind("version", user.getVersion());
+        update = user.getTokenVersionUpdatedAt() == null
+                ? update.bindNull("versionUpdatedAt", LocalDateTime.class)
+                : update.bind("versionUpdatedAt", toTimestamp(user.getTokenVersionUpdatedAt()));
+        return update.fetch().rowsUpdated()
+                .filter(rows -> rows > 0)
+                .switchIfEmpty(Mono.error(() ->
+                        new ApplicationException(HttpStatus.CONFLICT, "Password was changed concurrently")))
+                .map(rows -> {
+                    user.setVersion(user.getVersion() + 1);
+                    return user;
+                });
+    }
+
+    // Guarded by the hash that was verified, so a password changed in the meantime is never overwritten. Leaves the
+    // version alone: a password change read before the rehash should still win over it.
+    public Mono<Boolean> replacePassword(UUID userId, String verifiedHash, String newHash) {
+        return client.sql("UPDATE users SET password = :newHash WHERE id = :id AND password = :verifiedHash")
+                .bind("id", userId)
+                .bind("verifiedHash", verifiedHash)
+                .bind("newHash", newHash)
+                .fetch().rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    // The columns are timestamp without time zone, written by Hibernate in the JVM's zone
+    static LocalDateTime toTimestamp(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    static Instant toInstant(LocalDateTime timestamp) {
+        return timestamp == null ? null : timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static User toUser(Row row) {
+        User user = new User(row.get("id", UUID.class), row.get("email", String.class), row.get("password", String.class),
+                row.get("role", String.class));
+        Integer version = row.get("token_version", Integer.class);
+        user.setTokenVersion(version == null ? 0 : version);
+        user.setTokenVersionUpdatedAt(toInstant(row.get("token_version_updated_at", LocalDateTime.class)));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+
+}
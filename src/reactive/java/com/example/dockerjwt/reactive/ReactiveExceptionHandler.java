@@ -0,0 +1,56 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.validation.exceptions.ApiError;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+// Port of RestResponseEntityExceptionHandler, with the same ApiError bodies and api.errors counter
+@RestControllerAdvice
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler({ ApplicationException.class })
+    public ResponseEntity<ApiError> handleApplicationException(final ApplicationException ex) {
+        log.info(ex.getClass().getName());
+        return respond(new ApiError(ex.getLocalizedMessage(), ex.getMessage(), ex.getStatus()), ex);
+    }
+
+    @ExceptionHandler({ AuthenticationException.class })
+    public ResponseEntity<ApiError> handleAuthenticationException(final AuthenticationException ex) {
+        log.info(ex.getClass().getName());
+        return respond(new ApiError(ex.getLocalizedMessage(), ex.getMessage(), HttpStatus.UNAUTHORIZED), ex);
+    }
+
+    // WebFlux's own exceptions, such as unreadable bodies or unsupported methods, carry their status
+    @ExceptionHandler({ ResponseStatusException.class })
+    public ResponseEntity<ApiError> handleResponseStatus(final ResponseStatusException ex) {
+        log.info(ex.getClass().getName());
+        return respond(new ApiError(ex.getReason(), ex.getLocalizedMessage(), ex.getStatus()), ex);
+    }
+
+    @ExceptionHandler({ Exception.class })
+    public ResponseEntity<ApiError> handleAll(final Exception ex) {
+        log.info(ex.getClass().getName());
+        log.error("error", ex);
+        return respond(new ApiError("error occurred", ex.getLocalizedMessage(), HttpStatus.INTERNAL_SERVER_ERROR), ex);
+    }
+
+    private ResponseEntity<ApiError> respond(ApiError apiError, Exception ex) {
+        meterRegistry.counter("api.errors", "status", String.valueOf(apiError.getStatus().value()),
+                "exception", ex.getClass().getSimpleName()).increment();
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.dockerjwt.reactive;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.dockerjwt.security.AuthenticationMode;
+import com.example.dockerjwt.security.JWTFilter;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import com.example.dockerjwt.security.SecurityUser;
+import com.example.dockerjwt.security.TokenClaims;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Port of JWTFilter: same outcomes and jwt.filter timers, with the principal loaded over R2DBC. Not a bean: WebFlux
+// would also run every WebFilter bean outside the security chain.
+public class ReactiveJWTFilter implements WebFilter {
+    private final JWTUtil jwtUtil;
+    private final R2dbcUserRepository userRepository;
+    private final ReactivePrincipalCache principalCache;
+    private final RevokedTokenStore revokedTokens;
+    private final ApiErrorWriter errorWriter;
+    private final Timer authenticated;
+    private final Timer anonymous;
+    private final Timer invalid;
+    private final Timer rejected;
+
+    ReactiveJWTFilter(JWTUtil jwtUtil, R2dbcUserRepository userRepository, ReactivePrincipalCache principalCache,
+                      RevokedTokenStore revokedTokens, ApiErrorWriter errorWriter,
+                      AuthenticationMode mode, MeterRegistry meterRegistry) {
+        // Stateless mode relies on TokenVersionRegistry, which polls the database through JPA
+        if (mode != AuthenticationMode.DATABASE) {
+            throw new IllegalStateException("The reactive application supports jwt.mode=database only");
+        }
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.revokedTokens = revokedTokens;
+        this.errorWriter = errorWriter;
+        this.authenticated = filterTimer(meterRegistry, "authenticated");
+        this.anonymous = filterTimer(meterRegistry, "anonymous");
+        this.invalid = filterTimer(meterRegistry, "invalid");
+        this.rejected = filterTimer(meterRegistry, "rejected");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        String jwt = JWTFilter.bearerToken(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (jwt == null) {
+            record(anonymous, start);
+            return chain.filter(exchange);
+        }
+        TokenClaims claims;
+        try {
+            claims = jwt.isEmpty() ? null : jwtUtil.verify(jwt);
+        } catch (JWTVerificationException ex) {
+            claims = null;
+        }
+        if (claims == null) {
+            record(invalid, start);
+            return errorWriter.write(exchange, HttpStatus.BAD_REQUEST, "Invalid JWT Token");
+        }
+        if (revokedTokens.isRevoked(claims)) {
+            record(rejected, start);
+            return errorWriter.write(exchange, HttpStatus.UNAUTHORIZED, "Revoked JWT Token");
+        }
+        TokenClaims verified = claims;
+        // Same version check as JWTFilter in database mode: reload a copy older than the token, reject a token older
+        // than the copy
+        return principalCache.get(claims.getUserId(), this::loadPrincipal)
+                .flatMap(user -> verified.getTokenVersion() > user.getTokenVersion()
+                        ? reloadPrincipal(verified.getUserId()) : Mono.just(user))
+                .flatMap(user -> verified.getTokenVersion() < user.getTokenVersion()
+                        ? Mono.<SecurityUser>error(new ApplicationException(HttpStatus.UNAUTHORIZED, "Revoked JWT Token"))
+                        : Mono.just(user))
+                .map(user -> authentication(user, verified))
+                .doOnNext(authentication -> record(authenticated, start))
+                .onErrorResume(ApplicationException.class, ex -> {
+                    record(rejected, start);
+                    return errorWriter.write(exchange, ex.getStatus(), ex.getMessage()).then(Mono.empty());
+                })
+                .flatMap(authentication -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)));
+    }
+
+    private Mono<SecurityUser> loadPrincipal(UUID userId) {
+        return userRepository.getUser(userId)
+                .map(SecurityUser::new)
+                .switchIfEmpty(Mono.error(() -> new ApplicationException(HttpStatus.NOT_FOUND, "Not found")));
+    }
+
+    private Mono<SecurityUser> reloadPrincipal(UUID userId) {
+        principalCache.evict(userId);
+        return principalCache.get(userId, this::loadPrincipal);
+    }
+
+    private static Authentication authentication(SecurityUser user, TokenClaims claims) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities());
+        authentication.setDetails(claims);
+        return authentication;
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.filter").tag("outcome", outcome).register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.health.HealthCheckController;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.JwksController;
+import com.example.dockerjwt.security.LoginRateLimiter;
+import com.example.dockerjwt.security.PublicRoutes;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import com.example.dockerjwt.security.SigningKeyRing;
+import com.example.dockerjwt.security.VerifiedTokenCache;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// The servlet application's blocking parts (MVC controllers, JPA, the servlet filter) live outside this package and are
+// never scanned; only the non-blocking security and health components are shared. Flyway still migrates over JDBC.
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        UserDetailsServiceAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class})
+@Import({JWTUtil.class, SigningKeyRing.class, VerifiedTokenCache.class, RevokedTokenStore.class, LoginRateLimiter.class,
+        PublicRoutes.class, JwksController.class, HealthCheckController.class})
+@EnableScheduling
+public class ReactiveJwtApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveJwtApplication.class);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+}
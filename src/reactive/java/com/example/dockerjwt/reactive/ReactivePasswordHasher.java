@@ -0,0 +1,78 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.AdaptivePasswordEncoder;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+// Hashes never run on an event loop: they go to a scheduler with one thread per core and a bounded queue,
+// and a full queue fails fast with 503 like the servlet application's hashing pool
+@Component
+public class ReactivePasswordHasher {
+    private static final int IDLE_SECONDS = 60;
+
+    private final PasswordEncoder encoder;
+    private final Scheduler scheduler;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter rejected;
+
+    public ReactivePasswordHasher(@Value("${security.password.algorithm}") String algorithm,
+                                  @Value("${security.password.cost}") int cost,
+                                  @Value("${security.password.target-latency}") Duration targetLatency,
+                                  @Value("${security.password-hashing.threads}") int threads,
+                                  @Value("${security.password-hashing.queue-size}") int queueSize,
+                                  MeterRegistry meterRegistry) {
+        this.encoder = AdaptivePasswordEncoder.calibrated(algorithm, cost, targetLatency);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(poolSize, queueSize, "password-hashing", IDLE_SECONDS, true);
+        this.encodeTime = Timer.builder("password.encode").register(meterRegistry);
+        this.matchesTime = Timer.builder("password.matches").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return offload(() -> encoder.encode(rawPassword), encodeTime);
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return offload(() -> encoder.matches(rawPassword, encodedPassword), matchesTime);
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    private <T> Mono<T> offload(Callable<T> hash, Timer timer) {
+        return Mono.fromCallable(() -> {
+            long start = System.nanoTime();
+            try {
+                return hash.call();
+            } finally {
+                timer.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }).subscribeOn(scheduler).onErrorMap(RejectedExecutionException.class, ex -> {
+            rejected.increment();
+            return new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent password operations");
+        });
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.SecurityUser;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Caches the pending load itself, so concurrent requests for one user share a single query
+@Component
+public class ReactivePrincipalCache {
+    private final AsyncCache<UUID, SecurityUser> cache;
+
+    public ReactivePrincipalCache(@Value("${security.principal-cache.max-size}") long maxSize,
+                                  @Value("${security.principal-cache.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    public Mono<SecurityUser> get(UUID userId, Function<UUID, Mono<SecurityUser>> loader) {
+        return Mono.fromFuture(cache.get(userId, (id, executor) -> loader.apply(id).toFuture()));
+    }
+
+    public void evict(UUID userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+}
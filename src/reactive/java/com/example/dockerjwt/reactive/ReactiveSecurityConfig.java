@@ -0,0 +1,98 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.AuthenticationMode;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.PublicRoutes;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Configuration
+@EnableWebFluxSecurity
+@AllArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final JWTUtil jwtUtil;
+    private final R2dbcUserRepository userRepository;
+    private final ReactivePrincipalCache principalCache;
+    private final RevokedTokenStore revokedTokens;
+    private final PublicRoutes publicRoutes;
+    private final ApiErrorWriter errorWriter;
+
+    // Declared explicitly: Boot prefers Tomcat for reactive applications when it is on the classpath
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         @Value("${jwt.mode}") AuthenticationMode mode,
+                                                         MeterRegistry meterRegistry) {
+        ReactiveJWTFilter jwtFilter = new ReactiveJWTFilter(jwtUtil, userRepository, principalCache, revokedTokens,
+                errorWriter, mode, meterRegistry);
+        ServerWebExchangeMatcher publicExchanges = exchange -> matchIf(publicRoutes.matches(
+                exchange.getRequest().getMethodValue(), exchange.getRequest().getPath().pathWithinApplication().value()));
+        return http.cors().and()
+                .csrf().disable()
+                .httpBasic().disable()
+                .formLogin().disable()
+                .logout().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange()
+                .matchers(publicExchanges).permitAll()
+                .matchers(exchange -> matchIf(managementServer(exchange))).permitAll()
+                .anyExchange().authenticated()
+                .and()
+                // Public routes skip token parsing, as JWTFilter.shouldNotFilter does
+                .addFilterAt((exchange, chain) -> publicExchanges.matches(exchange)
+                        .flatMap(match -> match.isMatch() ? chain.filter(exchange) : jwtFilter.filter(exchange, chain)),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling()
+                .authenticationEntryPoint((exchange, ex) ->
+                        errorWriter.write(exchange, HttpStatus.UNAUTHORIZED, ex.getMessage()))
+                .accessDeniedHandler((exchange, ex) -> errorWriter.write(exchange, HttpStatus.FORBIDDEN, ex.getMessage()))
+                .and()
+                .build();
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE"));
+        configuration.setAllowedOrigins(List.of("*"));
+        configuration.setAllowedHeaders(List.of("*"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
+    }
+
+    // The management server runs in a child context on its own port; each exchange carries the context serving it
+    private static boolean managementServer(ServerWebExchange exchange) {
+        return WebServerApplicationContext.hasServerNamespace(exchange.getApplicationContext(), "management");
+    }
+
+    private static Mono<ServerWebExchangeMatcher.MatchResult> matchIf(boolean matches) {
+        return matches ? ServerWebExchangeMatcher.MatchResult.match() : ServerWebExchangeMatcher.MatchResult.notMatch();
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.security.LoginRateLimiter;
+import com.example.dockerjwt.security.SecurityUser;
+import com.example.dockerjwt.security.TokenClaims;
+import com.example.dockerjwt.user.UserMapper;
+import com.example.dockerjwt.user.UserRole;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.example.dockerjwt.user.dto.PasswordDto;
+import com.example.dockerjwt.user.dto.RefreshRequest;
+import com.example.dockerjwt.validation.ValidationErrorBuilder;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.net.InetSocketAddress;
+
+// Same routes, statuses and bodies as UserController
+@RestController
+@Slf4j
+@RequestMapping(value = ReactiveUserController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReactiveUserController {
+
+    static final String REST_URL = "/users";
+    private final ReactiveUserService userService;
+    private final LoginRateLimiter loginRateLimiter;
+
+    public ReactiveUserController(ReactiveUserService userService, LoginRateLimiter loginRateLimiter) {
+        this.userService = userService;
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @Operation(summary = "Login user with email and password to obtain JWT access token")
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> authenticateUser(ServerHttpRequest request,
+                                                    @Valid @RequestBody Mono<LoginRequest> loginRequest) {
+        return loginRequest.flatMap(login -> {
+            log.info("authenticate {}", login);
+            loginRateLimiter.acquire(remoteAddress(request), login.getEmail());
+            return userService.login(login)
+                    .onErrorMap(BadCredentialsException.class, ex -> {
+                        loginRateLimiter.onFailure(login.getEmail());
+                        return new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials");
+                    })
+                    .doOnNext(token -> loginRateLimiter.onSuccess(login.getEmail()))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok);
+        }).onErrorResume(WebExchangeBindException.class, errors -> validationError(request, HttpStatus.BAD_REQUEST, errors));
+    }
+
+    @Operation(summary = "Sign up new user to work with API")
+    @PostMapping("/signup")
+    public Mono<ResponseEntity<?>> registerUser(ServerHttpRequest request,
+                                                @Valid @RequestBody Mono<LoginRequest> loginRequest) {
+        return loginRequest.flatMap(signup -> {
+            log.info("register {}", signup);
+            try {
+                UserRole.valueOf(signup.getRole());
+            } catch (IllegalArgumentException e) {
+                return Mono.error(new ApplicationException(HttpStatus.BAD_REQUEST, "Not found role"));
+            }
+            return userService.signup(signup)
+                    .<ResponseEntity<?>>map(token -> new ResponseEntity<>(token, HttpStatus.CREATED));
+        }).onErrorResume(WebExchangeBindException.class,
+                errors -> validationError(request, HttpStatus.UNPROCESSABLE_ENTITY, errors));
+    }
+
+    @Operation(summary = "Get information about current user")
+    @GetMapping("/me")
+    public Mono<ResponseEntity<?>> me() {
+        return currentUser()
+                .map(user -> ResponseEntity.ok(UserMapper.toUserTo(user)));
+    }
+
+    @Operation(summary = "Change current user password")
+    @PatchMapping("/me")
+    public Mono<ResponseEntity<?>> changeCurrentUserPassword(ServerHttpRequest request,
+                                                             @Valid @RequestBody Mono<PasswordDto> passwordDto) {
+        log.info("Change current user password");
+        return passwordDto.flatMap(passwords -> currentUser()
+                .flatMap(principal -> userService.getUserInfo(principal.getId()))
+                .flatMap(user -> userService.checkIfValidOldPassword(user, passwords.getOldPassword())
+                        .flatMap(valid -> valid
+                                ? userService.changeUserPassword(user, passwords.getNewPassword())
+                                : Mono.<JWTToken>error(new ApplicationException(HttpStatus.BAD_REQUEST,
+                                        "Invalid password supplied"))))
+                .<ResponseEntity<?>>map(ResponseEntity::ok))
+                .onErrorResume(WebExchangeBindException.class, errors -> validationError(request, HttpStatus.BAD_REQUEST, errors));
+    }
+
+    @Operation(summary = "Exchange refresh token for a new pair of access and refresh tokens")
+    @PostMapping("/token/refresh")
+    public Mono<ResponseEntity<?>> refreshToken(ServerHttpRequest request,
+                                                @Valid @RequestBody Mono<RefreshRequest> refreshRequest) {
+        log.info("Refresh token");
+        return refreshRequest.flatMap(refresh -> userService.refresh(refresh.getRefreshToken()))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(WebExchangeBindException.class, errors -> validationError(request, HttpStatus.BAD_REQUEST, errors));
+    }
+
+    @Operation(summary = "Logout current user, revoking the access token and the supplied refresh token")
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<?>> logout(@RequestBody(required = false) Mono<RefreshRequest> refreshRequest) {
+        log.info("Logout current user");
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(auth -> auth.getPrincipal() instanceof SecurityUser)
+                .switchIfEmpty(Mono.error(() -> new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials")))
+                .flatMap(auth -> refreshRequest
+                        .map(RefreshRequest::getRefreshToken)
+                        .defaultIfEmpty("")
+                        .flatMap(refreshToken -> userService.logout(((SecurityUser) auth.getPrincipal()).getId(),
+                                accessToken(auth), refreshToken.isEmpty() ? null : refreshToken)))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private static Mono<SecurityUser> currentUser() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getPrincipal)
+                .filter(SecurityUser.class::isInstance)
+                .cast(SecurityUser.class)
+                .switchIfEmpty(Mono.error(() -> new ApplicationException(HttpStatus.UNAUTHORIZED, "Wrong credentials")));
+    }
+
+    private static TokenClaims accessToken(Authentication auth) {
+        return auth.getDetails() instanceof TokenClaims ? (TokenClaims) auth.getDetails() : null;
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        return address == null || address.getAddress() == null ? "unknown" : address.getAddress().getHostAddress();
+    }
+
+    private static Mono<ResponseEntity<?>> validationError(ServerHttpRequest request, HttpStatus status,
+                                                           WebExchangeBindException errors) {
+        log.info("Validation error with request: " + request.getURI().getPath());
+        return Mono.just(ResponseEntity.status(status).body(ValidationErrorBuilder.fromBindingErrors(errors)));
+    }
+
+}
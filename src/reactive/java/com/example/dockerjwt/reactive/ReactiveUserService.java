@@ -0,0 +1,128 @@
+package com.example.dockerjwt.reactive;
+
+import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import com.example.dockerjwt.security.TokenClaims;
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UserMapper;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Port of UserService: every blocking step is either a database call over R2DBC or a hash on the hashing scheduler
+@Service
+@Slf4j
+public class ReactiveUserService {
+
+    private final R2dbcUserRepository userRepository;
+    private final ReactivePasswordHasher passwordHasher;
+    private final JWTUtil jwtUtil;
+    private final R2dbcRefreshTokenService refreshTokenService;
+    private final RevokedTokenStore revokedTokens;
+    private final ReactivePrincipalCache principalCache;
+    private final Counter rehashed;
+    private final Counter rehashSkipped;
+    // Unknown emails are checked against this hash, so they cost the same single hash as a wrong password
+    private final String unknownUserHash;
+
+    public ReactiveUserService(R2dbcUserRepository userRepository, ReactivePasswordHasher passwordHasher,
+                               JWTUtil jwtUtil, R2dbcRefreshTokenService refreshTokenService,
+                               RevokedTokenStore revokedTokens, ReactivePrincipalCache principalCache,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.revokedTokens = revokedTokens;
+        this.principalCache = principalCache;
+        this.rehashed = meterRegistry.counter("password.rehash", "result", "done");
+        this.rehashSkipped = meterRegistry.counter("password.rehash", "result", "skipped");
+        this.unknownUserHash = passwordHasher.encode(UUID.randomUUID().toString()).block();
+    }
+
+    // One lookup and one hash whether or not the email exists; the loaded user is reused for the tokens
+    public Mono<JWTToken> login(LoginRequest loginRequest) {
+        return userRepository.getUserByEmail(loginRequest.getEmail())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> passwordHasher.matches(loginRequest.getPassword(),
+                                found.map(User::getPassword).orElse(unknownUserHash))
+                        .flatMap(matches -> matches && found.isPresent()
+                                ? Mono.just(found.get())
+                                : Mono.error(new BadCredentialsException("Wrong credentials"))))
+                .doOnNext(user -> rehashIfNeeded(user, loginRequest.getPassword()))
+                .flatMap(this::issueTokens);
+    }
+
+    public Mono<JWTToken> signup(LoginRequest loginRequest) {
+        return passwordHasher.encode(loginRequest.getPassword())
+                .map(encoded -> UserMapper.toUser(loginRequest, encoded))
+                .flatMap(userRepository::addUser)
+                .switchIfEmpty(Mono.error(() -> new ApplicationException(HttpStatus.CONFLICT, "Unable to add user")))
+                .flatMap(this::issueTokens);
+    }
+
+    public Mono<User> getUserInfo(UUID userId) {
+        return userRepository.getUser(userId)
+                .switchIfEmpty(Mono.error(() -> new ApplicationException(HttpStatus.NOT_FOUND, "Not found")));
+    }
+
+    public Mono<JWTToken> changeUserPassword(User user, String password) {
+        return passwordHasher.encode(password)
+                .flatMap(encoded -> {
+                    user.setPassword(encoded);
+                    user.revokeTokens();
+                    return userRepository.saveUser(user);
+                })
+                .doOnNext(saved -> principalCache.evict(saved.getId()))
+                .flatMap(saved -> refreshTokenService.revokeAll(saved.getId()).thenReturn(saved))
+                .flatMap(this::issueTokens);
+    }
+
+    public Mono<JWTToken> refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken)
+                .flatMap(issued -> getUserInfo(issued.getUserId())
+                        .map(user -> UserMapper.toJWTToken(user, jwtUtil.generateToken(user), issued.getValue())));
+    }
+
+    public Mono<Void> logout(UUID userId, TokenClaims accessToken, String refreshToken) {
+        if (accessToken != null) {
+            revokedTokens.revoke(accessToken);
+        }
+        return refreshToken == null ? Mono.empty() : refreshTokenService.revoke(refreshToken, userId);
+    }
+
+    public Mono<Boolean> checkIfValidOldPassword(User user, String oldPassword) {
+        return passwordHasher.matches(oldPassword, user.getPassword());
+    }
+
+    private Mono<JWTToken> issueTokens(User user) {
+        return refreshTokenService.issue(user.getId())
+                .map(refresh -> UserMapper.toJWTToken(user, jwtUtil.generateToken(user), refresh));
+    }
+
+    // Same contract as PasswordRehasher, without its thread: the hash runs on the hashing scheduler and the update
+    // only applies while the stored hash is still the one that was verified
+    private void rehashIfNeeded(User user, String rawPassword) {
+        String verifiedHash = user.getPassword();
+        if (!passwordHasher.upgradeEncoding(verifiedHash)) {
+            return;
+        }
+        passwordHasher.encode(rawPassword)
+                .flatMap(newHash -> userRepository.replacePassword(user.getId(), verifiedHash, newHash))
+                .subscribe(replaced -> (replaced ? rehashed : rehashSkipped).increment(), e -> {
+                    rehashSkipped.increment();
+                    log.warn("Password rehash failed for user {}", user.getId(), e);
+                });
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.dockerjwt;
+
+import com.example.dockerjwt.security.RefreshToken;
+import com.example.dockerjwt.user.User;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Builds a scratch schema from the migrations alone and lets Hibernate validate the entities against it
+@SpringBootTest(properties = {
+        "spring.flyway.schemas=" + SchemaMigrationTest.SCHEMA,
+        "spring.flyway.clean-disabled=false",
+        "spring.datasource.hikari.schema=" + SchemaMigrationTest.SCHEMA,
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaMigrationTest {
+    static final String SCHEMA = "migration_test";
+    private static final String BASELINE_SCHEMA = "migration_baseline_test";
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @TestConfiguration
+    static class CleanMigrate {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Test
+    void allMigrationsApplyToEmptySchema() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals(flyway.info().all().length, applied.length);
+        for (MigrationInfo migration : applied) {
+            assertEquals(MigrationState.SUCCESS, migration.getState(), migration.getScript());
+        }
+    }
+
+    @Test
+    void deletingUserDeletesItsRefreshTokens() {
+        UUID userId = transactionTemplate.execute(status -> {
+            User user = new User("migration-" + UUID.randomUUID() + "@gmail.com", "password", "ROLE_USER");
+            entityManager.persist(user);
+            entityManager.persist(new RefreshToken(user.getId(), UUID.randomUUID(), UUID.randomUUID().toString()
+                    .replace("-", ""), Instant.now().plusSeconds(60)));
+            return user.getId();
+        });
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("delete from User u where u.id = :id").setParameter("id", userId).executeUpdate());
+        Long tokens = transactionTemplate.execute(status -> entityManager
+                .createQuery("select count(t) from RefreshToken t where t.userId = :id", Long.class)
+                .setParameter("id", userId).getSingleResult());
+        assertEquals(0L, tokens);
+    }
+
+    // A database last written by ddl-auto=update before Flyway: varchar ids and a case-sensitive email constraint
+    @Test
+    void baselinedDatabaseReceivesLaterMigrations() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + BASELINE_SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + BASELINE_SCHEMA);
+        jdbcTemplate.execute("CREATE TABLE " + BASELINE_SCHEMA + ".users (id varchar(36) NOT NULL, "
+                + "email varchar(255) NOT NULL, password varchar(255) NOT NULL, role varchar(255), PRIMARY KEY (id))");
+        jdbcTemplate.execute("ALTER TABLE " + BASELINE_SCHEMA + ".users ADD CONSTRAINT uk_6dotkott2kjsp8vw4d0m25fb7 "
+                + "UNIQUE (email)");
+        String id = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO " + BASELINE_SCHEMA + ".users VALUES (?, 'Old@gmail.com', 'hash', 'ROLE_USER')",
+                id);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(BASELINE_SCHEMA)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals("uuid", jdbcTemplate.queryForObject("SELECT data_type FROM information_schema.columns "
+                + "WHERE table_schema = ? AND table_name = 'users' AND column_name = 'id'", String.class,
+                BASELINE_SCHEMA));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT token_version FROM " + BASELINE_SCHEMA
+                + ".users WHERE id = ?::uuid", Integer.class, id));
+        jdbcTemplate.update("INSERT INTO " + BASELINE_SCHEMA + ".refresh_tokens VALUES (?, ?::uuid, ?, 'hash', now(), "
+                + "NULL, false)", UUID.randomUUID(), id, UUID.randomUUID());
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("INSERT INTO " + BASELINE_SCHEMA
+                + ".users (id, email, password) VALUES (?, 'old@gmail.com', 'hash')", UUID.randomUUID()));
+        jdbcTemplate.execute("DROP SCHEMA " + BASELINE_SCHEMA + " CASCADE");
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.example.dockerjwt.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@SpringBootTest
+class AuditLogTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper mapper;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void writesRecordedEventsInBatches() throws Exception {
+        String email = "audit-" + UUID.randomUUID() + "@gmail.com";
+        UUID userId = UUID.randomUUID();
+        AuditLog auditLog = new AuditLog(jdbcTemplate, mapper, meterRegistry, 64, 3, Duration.ofMinutes(1), "");
+        auditLog.start();
+        try {
+            auditLog.record(AuditEventType.LOGIN_FAILED, null, email, "127.0.0.1");
+            auditLog.record(AuditEventType.LOGIN, userId, email, "127.0.0.1");
+            auditLog.record(AuditEventType.PASSWORD_CHANGE, userId, email, "127.0.0.1");
+            // The third event fills the batch, so the write does not wait for the minute-long interval
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (meterRegistry.get("audit.events").tag("outcome", "written").counter().count() < 3
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(List.of("LOGIN", "LOGIN_FAILED", "PASSWORD_CHANGE"), jdbcTemplate.queryForList(
+                    "SELECT type FROM audit_events WHERE email = ? ORDER BY type", String.class, email));
+            assertEquals(2, jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM audit_events WHERE user_id = ?", Integer.class, userId));
+            assertEquals(1, meterRegistry.get("audit.flush").tag("outcome", "written").timer().count());
+        } finally {
+            auditLog.shutdown();
+            jdbcTemplate.update("DELETE FROM audit_events WHERE email = ?", email);
+        }
+    }
+
+    @Test
+    void dropsWhenBufferIsFull() {
+        AuditLog auditLog = new AuditLog(jdbcTemplate, mapper, meterRegistry, 2, 10, Duration.ofMinutes(1), "");
+        for (int i = 0; i < 3; i++) {
+            auditLog.record(AuditEventType.SIGNUP, null, "full@gmail.com", "127.0.0.1");
+        }
+        assertEquals(2, auditLog.queued());
+        assertEquals(2, meterRegistry.get("audit.queue.depth").gauge().value());
+        assertEquals(1, meterRegistry.get("audit.events").tag("outcome", "dropped").counter().count());
+    }
+
+    @Test
+    void spillsBatchTheDatabaseRejected(@TempDir Path dir) throws Exception {
+        JdbcTemplate failing = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(failing.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        Path spillFile = dir.resolve("audit.ndjson");
+        AuditLog auditLog = new AuditLog(failing, mapper, meterRegistry, 8, 10, Duration.ofMinutes(1),
+                spillFile.toString());
+
+        auditLog.flush(List.of(
+                new AuditEvent(AuditEventType.LOGIN, UUID.randomUUID(), "a@gmail.com", "10.0.0.1", Instant.now()),
+                new AuditEvent(AuditEventType.LOGIN_FAILED, null, "b@gmail.com", "10.0.0.2", Instant.now())));
+
+        List<String> lines = Files.readAllLines(spillFile);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("\"type\":\"LOGIN_FAILED\""));
+        assertEquals(2, meterRegistry.get("audit.events").tag("outcome", "spilled").counter().count());
+        assertEquals(1, meterRegistry.get("audit.flush").tag("outcome", "spilled").timer().count());
+    }
+}
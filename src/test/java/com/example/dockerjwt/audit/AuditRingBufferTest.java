@@ -0,0 +1,76 @@
+package com.example.dockerjwt.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(2, new AuditRingBuffer<>(1).capacity());
+        assertEquals(8, new AuditRingBuffer<>(8).capacity());
+        assertEquals(16, new AuditRingBuffer<>(9).capacity());
+    }
+
+    @Test
+    void rejectsWhenFullAndAcceptsAfterDrain() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertTrue(buffer.offer(5));
+        assertTrue(buffer.offer(6));
+        assertTrue(buffer.offer(7));
+        assertFalse(buffer.offer(8));
+
+        drained.clear();
+        assertEquals(4, buffer.drainTo(drained, 10));
+        assertEquals(List.of(3, 5, 6, 7), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(256);
+        int producers = 4;
+        int perProducer = 10_000;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            futures[p] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        int drained = 0;
+        while (drained < producers * perProducer) {
+            batch.clear();
+            drained += buffer.drainTo(batch, 64);
+            seen.addAll(batch);
+            Thread.onSpinWait();
+        }
+        CompletableFuture.allOf(futures).join();
+        assertEquals(producers * perProducer, seen.size());
+        assertEquals(0, buffer.size());
+    }
+}
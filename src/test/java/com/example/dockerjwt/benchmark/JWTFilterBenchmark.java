@@ -0,0 +1,142 @@
+package com.example.dockerjwt.benchmark;
+
+import com.example.dockerjwt.security.AuthenticationMode;
+import com.example.dockerjwt.security.JWTFilter;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.PrincipalCache;
+import com.example.dockerjwt.security.PublicRoutes;
+import com.example.dockerjwt.security.RevokedTokenStore;
+import com.example.dockerjwt.security.TokenVersionRegistry;
+import com.example.dockerjwt.security.VerifiedTokenCache;
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// One JWTFilter pass per call, from the Authorization header to the populated SecurityContext.
+// The repository is an in-memory stub, so the numbers exclude the database.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTFilterBenchmark {
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    // DATABASE_MISS evicts the principal before every pass, so each one loads the user from the repository
+    @Param({"DATABASE", "DATABASE_MISS", "STATELESS"})
+    private String scenario;
+
+    private final User user = new User(UUID.randomUUID(), "admin@gmail.com", "password", "ROLE_USER");
+    private JWTFilter jwtFilter;
+    private PrincipalCache principalCache;
+    private MockHttpServletRequest request;
+    private MockHttpServletRequest publicRequest;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setup() {
+        AuthenticationMode mode = "STATELESS".equals(scenario) ? AuthenticationMode.STATELESS : AuthenticationMode.DATABASE;
+        JWTUtil jwtUtil = new JWTUtil("benchmark-secret", 15L, new VerifiedTokenCache(1024, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        principalCache = new PrincipalCache(1024, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        jwtFilter = new JWTFilter(jwtUtil, new StubUserRepository(user), principalCache, new TokenVersionRegistry(null),
+                new RevokedTokenStore(new SimpleMeterRegistry()), new PublicRoutes(), mode, new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/users/me");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+        publicRequest = new MockHttpServletRequest("POST", "/users/login");
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws ServletException, IOException {
+        if ("DATABASE_MISS".equals(scenario)) {
+            principalCache.evict(user.getId());
+        }
+        SecurityContextHolder.clearContext();
+        jwtFilter.doFilter(request, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication publicRoute() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        jwtFilter.doFilter(publicRequest, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static final class StubUserRepository implements UserRepository {
+        private final User user;
+
+        private StubUserRepository(User user) {
+            this.user = user;
+        }
+
+        @Override
+        public Optional<User> addUser(User newUser) {
+            return Optional.of(newUser);
+        }
+
+        @Override
+        public Set<UUID> addUsers(List<User> users) {
+            return users.stream().map(User::getId).collect(Collectors.toSet());
+        }
+
+        @Override
+        public Optional<User> getUser(UUID userId) {
+            return user.getId().equals(userId) ? Optional.of(user) : Optional.empty();
+        }
+
+        @Override
+        public Optional<User> getCurrentUser(UUID userId) {
+            return getUser(userId);
+        }
+
+        @Override
+        public Optional<User> getUserByEmail(String email) {
+            return user.getEmail().equalsIgnoreCase(email) ? Optional.of(user) : Optional.empty();
+        }
+
+        @Override
+        public User saveUser(User updated) {
+            return updated;
+        }
+
+        @Override
+        public boolean replacePassword(UUID userId, String verifiedHash, String newHash) {
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JWTFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
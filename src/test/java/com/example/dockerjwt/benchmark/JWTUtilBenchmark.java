@@ -0,0 +1,112 @@
+package com.example.dockerjwt.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.dockerjwt.security.InMemorySigningKeyStore;
+import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.SigningKeyRing;
+import com.example.dockerjwt.security.VerifiedTokenCache;
+import com.example.dockerjwt.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTUtilBenchmark {
+    private static final String SECRET = "benchmark-secret";
+    private static final long EXPIRATION = 10080;
+
+    private final UUID userId = UUID.randomUUID();
+    private final User user = new User(userId, "admin@gmail.com", "password", "ROLE_USER");
+    private JWTUtil jwtUtil;
+    private JWTUtil cachingJwtUtil;
+    private JWTUtil es256JwtUtil;
+    private String token;
+    private String es256Token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JWTUtil(SECRET, EXPIRATION, new VerifiedTokenCache(0, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        cachingJwtUtil = new JWTUtil(SECRET, EXPIRATION, new VerifiedTokenCache(1024, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        token = jwtUtil.generateToken(user);
+        SigningKeyRing keyRing = new SigningKeyRing(SigningKeyRing.ES256, SECRET, Duration.ofDays(1),
+                Duration.ofMinutes(EXPIRATION), EXPIRATION, new InMemorySigningKeyStore());
+        es256JwtUtil = new JWTUtil(SECRET, EXPIRATION, SigningKeyRing.ES256, keyRing,
+                new VerifiedTokenCache(0, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        es256Token = es256JwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String signPerCallAlgorithm() {
+        Date expirationTime = Date.from(ZonedDateTime.now().plusMinutes(EXPIRATION).toInstant());
+        return JWT.create()
+                .withClaim("user_id", userId.toString())
+                .withExpiresAt(expirationTime)
+                .withClaim("typ", "access")
+                .sign(Algorithm.HMAC256(SECRET));
+    }
+
+    @Benchmark
+    public String signPrebuilt() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String verifyPerCallVerifier() {
+        return JWT.require(Algorithm.HMAC256(SECRET))
+                .withClaim("typ", "access")
+                .build()
+                .verify(token)
+                .getClaim("user_id")
+                .asString();
+    }
+
+    @Benchmark
+    public UUID verifyPrebuilt() {
+        return jwtUtil.validateTokenAndReturnEmail(token);
+    }
+
+    @Benchmark
+    public UUID verifyCached() {
+        return cachingJwtUtil.validateTokenAndReturnEmail(token);
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return es256JwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public UUID verifyEs256() {
+        return es256JwtUtil.validateTokenAndReturnEmail(es256Token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JWTUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
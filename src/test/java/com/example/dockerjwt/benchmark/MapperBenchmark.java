@@ -0,0 +1,64 @@
+package com.example.dockerjwt.benchmark;
+
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UserMapper;
+import com.example.dockerjwt.user.dto.UserTo;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Steady-state cost of User -> UserTo; firstModelMapperCall is the first mapping on a fresh ModelMapper, as after startup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final User user = new User(UUID.randomUUID(), "admin@gmail.com", "password", "ROLE_USER");
+    private ModelMapper modelMapper;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        modelMapper.map(user, UserTo.class);
+    }
+
+    @Benchmark
+    public UserTo modelMapper() {
+        return modelMapper.map(user, UserTo.class);
+    }
+
+    @Benchmark
+    public UserTo userMapper() {
+        return UserMapper.toUserTo(user);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 20)
+    public UserTo firstModelMapperCall() {
+        return new ModelMapper().map(user, UserTo.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
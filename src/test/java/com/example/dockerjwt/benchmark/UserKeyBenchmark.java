@@ -0,0 +1,136 @@
+package com.example.dockerjwt.benchmark;
+
+import com.example.dockerjwt.user.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compares the old varchar(36) uuid2 key and case-sensitive email constraint with native uuid v7 keys and the
+// lower(email) index. Needs a scratch Postgres: -Djdbc.url=jdbc:postgresql://localhost:5432/postgres
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserKeyBenchmark {
+    private static final int ROWS = 200_000;
+
+    private Connection connection;
+    private PreparedStatement byVarcharId;
+    private PreparedStatement byUuidId;
+    private PreparedStatement byEmail;
+    private PreparedStatement byLowerEmail;
+    private String[] varcharIds;
+    private UUID[] uuidIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("jdbc.username", "postgres"), System.getProperty("jdbc.password", "password"));
+        varcharIds = new String[ROWS];
+        uuidIds = new UUID[ROWS];
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_users_varchar, bench_users_uuid");
+            statement.execute("CREATE TABLE bench_users_varchar (id varchar(36) PRIMARY KEY, email varchar(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE bench_users_uuid (id uuid PRIMARY KEY, email varchar(255) NOT NULL)");
+            statement.execute("CREATE UNIQUE INDEX bench_users_uuid_email_lower_idx ON bench_users_uuid (lower(email))");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement varchar = connection.prepareStatement("INSERT INTO bench_users_varchar VALUES (?, ?)");
+             PreparedStatement uuid = connection.prepareStatement("INSERT INTO bench_users_uuid VALUES (?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                varcharIds[i] = UUID.randomUUID().toString();
+                uuidIds[i] = UuidV7Generator.generate();
+                varchar.setString(1, varcharIds[i]);
+                varchar.setString(2, "user" + i + "@gmail.com");
+                varchar.addBatch();
+                uuid.setObject(1, uuidIds[i]);
+                uuid.setString(2, "user" + i + "@gmail.com");
+                uuid.addBatch();
+            }
+            varchar.executeBatch();
+            uuid.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE bench_users_varchar");
+            statement.execute("VACUUM ANALYZE bench_users_uuid");
+            try (ResultSet sizes = statement.executeQuery("SELECT indexname, pg_size_pretty(pg_relation_size(indexname::regclass)) "
+                    + "FROM pg_indexes WHERE tablename LIKE 'bench_users_%' ORDER BY indexname")) {
+                while (sizes.next()) {
+                    System.out.println("index " + sizes.getString(1) + ": " + sizes.getString(2));
+                }
+            }
+        }
+        byVarcharId = connection.prepareStatement("SELECT email FROM bench_users_varchar WHERE id = ?");
+        byUuidId = connection.prepareStatement("SELECT email FROM bench_users_uuid WHERE id = ?");
+        byEmail = connection.prepareStatement("SELECT id FROM bench_users_varchar WHERE email = ?");
+        byLowerEmail = connection.prepareStatement("SELECT id FROM bench_users_uuid WHERE lower(email) = lower(?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_users_varchar, bench_users_uuid");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public String lookupByVarcharId() throws SQLException {
+        byVarcharId.setString(1, varcharIds[ThreadLocalRandom.current().nextInt(ROWS)]);
+        return single(byVarcharId);
+    }
+
+    @Benchmark
+    public String lookupByUuidId() throws SQLException {
+        byUuidId.setObject(1, uuidIds[ThreadLocalRandom.current().nextInt(ROWS)]);
+        return single(byUuidId);
+    }
+
+    @Benchmark
+    public String lookupByEmail() throws SQLException {
+        byEmail.setString(1, "user" + ThreadLocalRandom.current().nextInt(ROWS) + "@gmail.com");
+        return single(byEmail);
+    }
+
+    @Benchmark
+    public String lookupByLowerEmail() throws SQLException {
+        byLowerEmail.setString(1, "User" + ThreadLocalRandom.current().nextInt(ROWS) + "@Gmail.com");
+        return single(byLowerEmail);
+    }
+
+    private static String single(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserKeyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
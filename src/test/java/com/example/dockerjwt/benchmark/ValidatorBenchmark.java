@@ -0,0 +1,65 @@
+package com.example.dockerjwt.benchmark;
+
+import com.example.dockerjwt.user.UserRole;
+import com.example.dockerjwt.validation.NoHtmlValidator;
+import com.example.dockerjwt.validation.ValueOfEnum;
+import com.example.dockerjwt.validation.ValueOfEnumValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private final NoHtmlValidator noHtmlValidator = new NoHtmlValidator();
+    private final ValueOfEnumValidator valueOfEnumValidator = new ValueOfEnumValidator();
+
+    @ValueOfEnum(enumClass = UserRole.class)
+    private String role;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        valueOfEnumValidator.initialize(ValidatorBenchmark.class.getDeclaredField("role").getAnnotation(ValueOfEnum.class));
+    }
+
+    @Benchmark
+    public boolean noHtmlPlainEmail() {
+        return noHtmlValidator.isValid("admin@gmail.com", null);
+    }
+
+    @Benchmark
+    public boolean noHtmlMarkup() {
+        return noHtmlValidator.isValid("<script>alert('x')</script>@gmail.com", null);
+    }
+
+    @Benchmark
+    public boolean valueOfEnumAccepted() {
+        return valueOfEnumValidator.isValid("ROLE_ADMIN", null);
+    }
+
+    @Benchmark
+    public boolean valueOfEnumRejected() {
+        return valueOfEnumValidator.isValid("ROLE_UNKNOWN", null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ValidatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.dockerjwt.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HibernateCacheConfigTest {
+
+    private final HibernateCacheConfig config = new HibernateCacheConfig();
+
+    @Test
+    void createsUserRegion() {
+        try (CacheManager cacheManager = config.hibernateCacheManager(100, Duration.ofMinutes(1))) {
+            Cache<Object, Object> users = cacheManager.getCache(HibernateCacheConfig.USER_REGION);
+            assertNotNull(users);
+            users.put("id", "user");
+            assertEquals("user", users.get("id"));
+        }
+    }
+
+    @Test
+    void managersAreIsolatedPerContext() {
+        try (CacheManager first = config.hibernateCacheManager(100, Duration.ofMinutes(1));
+             CacheManager second = config.hibernateCacheManager(100, Duration.ofMinutes(1))) {
+            assertNotSame(first, second);
+            first.getCache(HibernateCacheConfig.USER_REGION).put("id", "user");
+            assertNull(second.getCache(HibernateCacheConfig.USER_REGION).get("id"));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.dockerjwt.config;
+
+import com.example.dockerjwt.security.AdaptivePasswordEncoder;
+import com.example.dockerjwt.security.JWTFilter;
+import com.example.dockerjwt.security.SigningKeyRing;
+import com.example.dockerjwt.user.UserController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyInitializationConfigTest {
+
+    private final LazyInitializationExcludeFilter filter = LazyInitializationConfig.securityHotPath();
+
+    @Test
+    void tokenPathStaysEager() {
+        assertTrue(isExcluded(JWTFilter.class));
+        assertTrue(isExcluded(SigningKeyRing.class));
+        assertTrue(isExcluded(AdaptivePasswordEncoder.class));
+    }
+
+    @Test
+    void restMayBeLazy() {
+        assertFalse(isExcluded(UserController.class));
+        assertFalse(isExcluded(SwaggerConfiguration.class));
+    }
+
+    private boolean isExcluded(Class<?> type) {
+        return filter.isExcluded(type.getSimpleName(), new RootBeanDefinition(type), type);
+    }
+}
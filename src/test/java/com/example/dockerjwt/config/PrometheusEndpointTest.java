@@ -0,0 +1,60 @@
+package com.example.dockerjwt.config;
+
+import com.example.dockerjwt.AbstractControllerTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Test contexts disable metrics export unless asked for it
+@AutoConfigureMetrics
+class PrometheusEndpointTest extends AbstractControllerTest {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @LocalServerPort
+    private int port;
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void scrapeExposesApplicationMetricsOnManagementPortOnly() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth("not-a-jwt");
+        assertThrows(HttpClientErrorException.BadRequest.class, () -> restTemplate.exchange(
+                "http://localhost:" + port + "/users/me", HttpMethod.GET, new HttpEntity<>(headers), String.class));
+        perform(post("/users/login").contentType(MediaType.APPLICATION_JSON).content("not json"))
+                .andExpect(status().isBadRequest());
+
+        assertNotEquals(port, managementPort);
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        String body = scrape.getBody();
+        assertTrue(body.contains("jwt_filter_seconds_count{outcome=\"invalid\""), "jwt.filter");
+        assertTrue(body.contains("jwt_verify_seconds_count{outcome=\"invalid\""), "jwt.verify");
+        assertTrue(body.contains("password_encode_seconds"), "password.encode");
+        assertTrue(body.contains("api_errors_total{exception=\"HttpMessageNotReadableException\",status=\"400\""),
+                "api.errors");
+        assertTrue(body.contains("user_repository_calls_seconds_count{method=\"getUserByEmail\""), "user.repository.calls");
+
+        HttpClientErrorException notPublic = assertThrows(HttpClientErrorException.class, () ->
+                restTemplate.getForEntity("http://localhost:" + port + "/actuator/prometheus", String.class));
+        assertTrue(notPublic.getStatusCode().is4xxClientError());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.dockerjwt.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsConfigTest {
+
+    @Test
+    void tasksRunOnNamedVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need JDK 21");
+        ExecutorService executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor("test-virtual-");
+        Thread thread = executor.submit(Thread::currentThread).get();
+        executor.shutdown();
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+        assertTrue(thread.getName().startsWith("test-virtual-"));
+    }
+
+    @Test
+    void olderJdkFailsWithClearMessage() {
+        assumeTrue(Runtime.version().feature() < 21, "Only older JDKs lack virtual threads");
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> VirtualThreadsConfig.newVirtualThreadPerTaskExecutor("test-virtual-"));
+        assertTrue(ex.getMessage().contains("JDK 21"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.dockerjwt.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "warm-up.iterations=20")
+class WarmUpRunnerTest {
+
+    @Autowired
+    private WarmUpRunner warmUpRunner;
+
+    @Test
+    void completesEveryIterationAgainstTheRunningServer() throws Exception {
+        assertEquals(20, warmUpRunner.warmUp());
+    }
+}
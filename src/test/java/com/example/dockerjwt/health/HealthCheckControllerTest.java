@@ -0,0 +1,41 @@
+package com.example.dockerjwt.health;
+
+import com.example.dockerjwt.AbstractControllerTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class HealthCheckControllerTest extends AbstractControllerTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @AfterEach
+    void afterEach() {
+        AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void upWithoutToken() throws Exception {
+        perform(get(HealthCheckController.HEALTHCHECK_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.readiness").value("ACCEPTING_TRAFFIC"));
+    }
+
+    @Test
+    void unavailableWhileRefusingTraffic() throws Exception {
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+        perform(get(HealthCheckController.HEALTHCHECK_URL))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("DOWN"))
+                .andExpect(jsonPath("$.liveness").value("CORRECT"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.dockerjwt.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePasswordEncoderTest {
+
+    public static final String USER_PASSWORD = "password";
+
+    @Test
+    void matchesLegacyBcryptHash() {
+        String legacy = new BCryptPasswordEncoder(4).encode(USER_PASSWORD);
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.BCRYPT, 4);
+        assertTrue(encoder.matches(USER_PASSWORD, legacy));
+        assertFalse(encoder.upgradeEncoding(legacy));
+        assertTrue(new AdaptivePasswordEncoder(AdaptivePasswordEncoder.ARGON2, 1).upgradeEncoding(legacy));
+    }
+
+    @Test
+    void detectsCostAboveAndBelowTarget() {
+        AdaptivePasswordEncoder target = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.BCRYPT, 5);
+        String lower = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.BCRYPT, 4).encode(USER_PASSWORD);
+        String higher = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.BCRYPT, 6).encode(USER_PASSWORD);
+        String current = target.encode(USER_PASSWORD);
+        assertTrue(target.upgradeEncoding(lower));
+        assertTrue(target.upgradeEncoding(higher));
+        assertFalse(target.upgradeEncoding(current));
+        assertTrue(target.matches(USER_PASSWORD, higher));
+    }
+
+    @Test
+    void matchesAcrossAlgorithms() {
+        String argon2 = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.ARGON2, 1).encode(USER_PASSWORD);
+        String pbkdf2 = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.PBKDF2, 1000).encode(USER_PASSWORD);
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(AdaptivePasswordEncoder.BCRYPT, 4);
+        assertTrue(encoder.matches(USER_PASSWORD, argon2));
+        assertTrue(encoder.matches(USER_PASSWORD, pbkdf2));
+        assertFalse(encoder.matches("wrong_password", pbkdf2));
+        assertTrue(encoder.upgradeEncoding(argon2));
+        assertFalse(new AdaptivePasswordEncoder(AdaptivePasswordEncoder.PBKDF2, 1000).upgradeEncoding(pbkdf2));
+    }
+
+    @Test
+    void calibratesToTargetLatency() {
+        AdaptivePasswordEncoder encoder = AdaptivePasswordEncoder.calibrated(
+                AdaptivePasswordEncoder.BCRYPT, 0, Duration.ofMillis(20));
+        assertTrue(encoder.matches(USER_PASSWORD, encoder.encode(USER_PASSWORD)));
+    }
+}
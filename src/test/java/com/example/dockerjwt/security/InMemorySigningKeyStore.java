@@ -0,0 +1,32 @@
+package com.example.dockerjwt.security;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Stands in for the signing_keys table; share one instance between rings to act as replicas of one deployment
+public class InMemorySigningKeyStore implements SigningKeyStore {
+    private final List<StoredSigningKey> keys = new ArrayList<>();
+
+    @Override
+    public synchronized List<StoredSigningKey> findAll() {
+        return List.copyOf(keys);
+    }
+
+    @Override
+    public synchronized void insertIfAbsent(StoredSigningKey key) {
+        if (keys.stream().noneMatch(stored -> stored.getActivatesAt().equals(key.getActivatesAt()))) {
+            keys.add(key);
+        }
+    }
+
+    @Override
+    public synchronized void deleteSupersededBefore(Instant cutoff) {
+        keys.removeIf(key -> keys.stream().anyMatch(successor -> successor.getActivatesAt().isAfter(key.getActivatesAt())
+                && successor.getActivatesAt().isBefore(cutoff)));
+    }
+
+    public synchronized int size() {
+        return keys.size();
+    }
+}
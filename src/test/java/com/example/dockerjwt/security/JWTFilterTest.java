@@ -0,0 +1,186 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.user.User;
+import com.example.dockerjwt.user.UserRepository;
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JWTFilterTest {
+
+    public static final String USER_1_MAIL = "admin@gmail.com";
+    public static final UUID USER_1_UUID = UUID.randomUUID();
+    public static final User USER_1 = new User(USER_1_UUID, USER_1_MAIL, "password", "ROLE_USER");
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    private final JWTUtil jwtUtil = new JWTUtil("secret", 60L, new VerifiedTokenCache(64, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+    private final RevokedTokenStore revokedTokens = new RevokedTokenStore(new SimpleMeterRegistry());
+    private PrincipalCache principalCache;
+    private JWTFilter jwtFilter;
+
+    @BeforeEach
+    void beforeEach() {
+        principalCache = new PrincipalCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        jwtFilter = new JWTFilter(jwtUtil, userRepository, principalCache, tokenVersionRegistry, revokedTokens,
+                new PublicRoutes(), AuthenticationMode.DATABASE, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void afterEach() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void warmRequestSkipsRepository() throws Exception {
+        when(userRepository.getUser(USER_1_UUID)).thenReturn(Optional.of(USER_1));
+        String token = jwtUtil.generateToken(USER_1);
+        filter(token);
+        filter(token);
+        verify(userRepository, times(1)).getUser(USER_1_UUID);
+        Authentication authentication = filter(token);
+        assertEquals(USER_1_MAIL, ((SecurityUser) authentication.getPrincipal()).getUsername());
+    }
+
+    @Test
+    void evictReloadsPrincipal() throws Exception {
+        when(userRepository.getUser(USER_1_UUID)).thenReturn(Optional.of(USER_1));
+        String token = jwtUtil.generateToken(USER_1);
+        filter(token);
+        principalCache.evict(USER_1_UUID);
+        filter(token);
+        verify(userRepository, times(2)).getUser(USER_1_UUID);
+    }
+
+    @Test
+    void statelessModeBuildsPrincipalFromClaims() throws Exception {
+        jwtFilter = new JWTFilter(jwtUtil, userRepository, principalCache, tokenVersionRegistry, revokedTokens,
+                new PublicRoutes(), AuthenticationMode.STATELESS, new SimpleMeterRegistry());
+        when(tokenVersionRegistry.isRevoked(any(TokenClaims.class))).thenReturn(false);
+        Authentication authentication = filter(jwtUtil.generateToken(USER_1));
+        SecurityUser principal = (SecurityUser) authentication.getPrincipal();
+        assertEquals(USER_1_UUID, principal.getId());
+        assertEquals(USER_1_MAIL, principal.getUsername());
+        assertTrue(principal.isClaimsOnly());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void statelessModeRejectsRevokedToken() {
+        jwtFilter = new JWTFilter(jwtUtil, userRepository, principalCache, tokenVersionRegistry, revokedTokens,
+                new PublicRoutes(), AuthenticationMode.STATELESS, new SimpleMeterRegistry());
+        when(tokenVersionRegistry.isRevoked(any(TokenClaims.class))).thenReturn(true);
+        String token = jwtUtil.generateToken(USER_1);
+        assertThrows(ApplicationException.class, () -> filter(token));
+    }
+
+    @Test
+    void databaseModeRejectsTokenOlderThanPrincipal() throws Exception {
+        User changed = new User(USER_1_UUID, USER_1_MAIL, "password", "ROLE_USER");
+        changed.setTokenVersion(1);
+        when(userRepository.getUser(USER_1_UUID)).thenReturn(Optional.of(changed));
+        assertThrows(ApplicationException.class, () -> filter(jwtUtil.generateToken(USER_1)));
+        filter(jwtUtil.generateToken(changed));
+    }
+
+    @Test
+    void databaseModeRejectsTokenRevokedOnAnotherInstance() {
+        when(tokenVersionRegistry.isRevoked(any(TokenClaims.class))).thenReturn(true);
+        assertThrows(ApplicationException.class, () -> filter(jwtUtil.generateToken(USER_1)));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void databaseModeReloadsPrincipalOlderThanToken() throws Exception {
+        User changed = new User(USER_1_UUID, USER_1_MAIL, "password", "ROLE_USER");
+        changed.setTokenVersion(1);
+        when(userRepository.getUser(USER_1_UUID)).thenReturn(Optional.of(USER_1), Optional.of(changed));
+        filter(jwtUtil.generateToken(USER_1));
+        Authentication authentication = filter(jwtUtil.generateToken(changed));
+        assertEquals(1, ((SecurityUser) authentication.getPrincipal()).getTokenVersion());
+        verify(userRepository, times(2)).getUser(USER_1_UUID);
+    }
+
+    @Test
+    void rejectsLoggedOutToken() throws Exception {
+        when(userRepository.getUser(USER_1_UUID)).thenReturn(Optional.of(USER_1));
+        String token = jwtUtil.generateToken(USER_1);
+        Authentication authentication = filter(token);
+        revokedTokens.revoke((TokenClaims) authentication.getDetails());
+        assertThrows(ApplicationException.class, () -> filter(token));
+        filter(jwtUtil.generateToken(USER_1));
+    }
+
+    @Test
+    void publicRoutesSkipTokenVerification() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/login");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtFilter.doFilter(request, response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void invalidTokenStopsChainWithBadRequest() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtFilter = new JWTFilter(jwtUtil, userRepository, principalCache, tokenVersionRegistry, revokedTokens,
+                new PublicRoutes(), AuthenticationMode.DATABASE, meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/me");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        jwtFilter.doFilter(request, response, chain);
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals(1, meterRegistry.get("jwt.filter").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    void parsesBearerHeader() {
+        assertEquals("abc", JWTFilter.bearerToken("Bearer abc"));
+        assertEquals("abc", JWTFilter.bearerToken("bearer   abc  "));
+        assertEquals("", JWTFilter.bearerToken("Bearer "));
+        assertEquals("", JWTFilter.bearerToken("Bearer"));
+        assertNull(JWTFilter.bearerToken("Bearerabc"));
+        assertNull(JWTFilter.bearerToken("Basic abc"));
+        assertNull(JWTFilter.bearerToken(null));
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.dockerjwt.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.dockerjwt.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JWTUtilTest {
+
+    public static final String SECRET = "secret";
+    public static final Long EXPIRATION = 60L;
+    public static final String USER_1_MAIL = "admin@gmail.com";
+    public static final UUID USER_1_UUID = UUID.randomUUID();
+    public static final User USER_1 = new User(USER_1_UUID, USER_1_MAIL, "password", "ROLE_ADMIN");
+
+    @Test
+    void generateAndValidateToken() {
+        JWTUtil jwtUtil = new JWTUtil(SECRET, EXPIRATION, new VerifiedTokenCache(64, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        String token = jwtUtil.generateToken(USER_1);
+        assertEquals(USER_1_UUID, jwtUtil.validateTokenAndReturnEmail(token));
+        assertEquals(USER_1_UUID, jwtUtil.validateTokenAndReturnEmail(token));
+    }
+
+    @Test
+    void tokenCarriesIdentityClaims() {
+        JWTUtil jwtUtil = new JWTUtil(SECRET, EXPIRATION, new VerifiedTokenCache(64, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        User user = new User(USER_1_UUID, USER_1_MAIL, "password", "ROLE_ADMIN");
+        user.revokeTokens();
+        TokenClaims claims = jwtUtil.verify(jwtUtil.generateToken(user));
+        assertEquals(USER_1_UUID, claims.getUserId());
+        assertEquals(USER_1_MAIL, claims.getEmail());
+        assertEquals("ROLE_ADMIN", claims.getRole());
+        assertEquals(1, claims.getTokenVersion());
+    }
+
+    @Test
+    void rebuildRejectsTokensSignedWithOldSecret() {
+        JWTUtil jwtUtil = new JWTUtil(SECRET, EXPIRATION, new VerifiedTokenCache(64, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        String token = jwtUtil.generateToken(USER_1);
+        jwtUtil.rebuild("new_secret", EXPIRATION);
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.validateTokenAndReturnEmail(token));
+        String newToken = jwtUtil.generateToken(USER_1);
+        assertEquals(USER_1_UUID, jwtUtil.validateTokenAndReturnEmail(newToken));
+    }
+
+    @Test
+    void keyRingTokensVerifyAcrossRotationUntilOverlapEnds() {
+        SigningKeyRing keyRing = keyRing(new InMemorySigningKeyStore());
+        JWTUtil jwtUtil = keyRingJwtUtil(keyRing);
+        String token = jwtUtil.generateToken(USER_1);
+        assertEquals("ES256", JWT.decode(token).getAlgorithm());
+        assertEquals(keyRing.getPrivateKeyId(), JWT.decode(token).getKeyId());
+
+        Instant tomorrow = SigningKeyRingTest.nextRotation();
+        keyRing.refresh(tomorrow);
+        assertNotEquals(JWT.decode(token).getKeyId(), JWT.decode(jwtUtil.generateToken(USER_1)).getKeyId());
+        assertEquals(USER_1_UUID, jwtUtil.validateTokenAndReturnEmail(token));
+
+        keyRing.refresh(tomorrow.plus(Duration.ofMinutes(EXPIRATION + 1)));
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.validateTokenAndReturnEmail(token));
+    }
+
+    @Test
+    void keyRingTokensVerifyOnEveryReplica() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        JWTUtil signer = keyRingJwtUtil(keyRing(store));
+        JWTUtil verifier = keyRingJwtUtil(keyRing(store));
+        assertEquals(USER_1_UUID, verifier.validateTokenAndReturnEmail(signer.generateToken(USER_1)));
+    }
+
+    private static SigningKeyRing keyRing(SigningKeyStore store) {
+        return new SigningKeyRing(SigningKeyRing.ES256, SECRET, Duration.ofDays(1), Duration.ofMinutes(15), EXPIRATION,
+                store);
+    }
+
+    private static JWTUtil keyRingJwtUtil(SigningKeyRing keyRing) {
+        return new JWTUtil(SECRET, EXPIRATION, SigningKeyRing.ES256, keyRing,
+                new VerifiedTokenCache(0, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+    }
+}
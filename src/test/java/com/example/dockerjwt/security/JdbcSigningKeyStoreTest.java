@@ -0,0 +1,60 @@
+package com.example.dockerjwt.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class JdbcSigningKeyStoreTest {
+    private static final String SECRET = "secret";
+
+    @Autowired
+    private JdbcSigningKeyStore store;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM signing_keys");
+    }
+
+    @Test
+    void replicasStoreOneKeyPerActivationTime() {
+        SigningKeyRing first = ring();
+        SigningKeyRing second = ring();
+
+        assertEquals(first.getPrivateKeyId(), second.getPrivateKeyId());
+        assertEquals(first.getJwks().getJson(), second.getJwks().getJson());
+        assertEquals(2, store.findAll().size());
+    }
+
+    @Test
+    void deletesKeysSupersededBeforeTheCutoff() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        store.insertIfAbsent(new StoredSigningKey("old", now.minus(Duration.ofDays(2)), new byte[1], new byte[1]));
+        store.insertIfAbsent(new StoredSigningKey("current", now.minus(Duration.ofDays(1)), new byte[1], new byte[1]));
+        store.insertIfAbsent(new StoredSigningKey("next", now, new byte[1], new byte[1]));
+        store.insertIfAbsent(new StoredSigningKey("duplicate", now, new byte[1], new byte[1]));
+
+        store.deleteSupersededBefore(now.minus(Duration.ofHours(1)));
+
+        assertEquals(2, store.findAll().size());
+        assertEquals(now, store.findAll().stream()
+                .filter(key -> key.getKid().equals("next"))
+                .findFirst().orElseThrow().getActivatesAt());
+    }
+
+    private SigningKeyRing ring() {
+        return new SigningKeyRing(SigningKeyRing.ES256, SECRET, Duration.ofDays(1), Duration.ofMinutes(15), 15L, store);
+    }
+}
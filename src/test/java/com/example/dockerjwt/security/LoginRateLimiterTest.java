@@ -0,0 +1,88 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+class LoginRateLimiterTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginRateLimiter limiter = new LoginRateLimiter(3, Duration.ofSeconds(1), 2, Duration.ofSeconds(10),
+            2, Duration.ofSeconds(30), Duration.ofMinutes(2), 1000, meterRegistry);
+
+    @Test
+    void ipBucketAllowsBurstThenRefills() {
+        long now = 0;
+        limiter.acquire("10.0.0.1", "a@gmail.com", now);
+        limiter.acquire("10.0.0.1", "b@gmail.com", now);
+        limiter.acquire("10.0.0.1", "c@gmail.com", now);
+        assertRejected("10.0.0.1", "d@gmail.com", now);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.2", "d@gmail.com", now));
+
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "d@gmail.com", now + SECOND));
+        assertEquals(1, meterRegistry.counter("login.rate.limited", "reason", "ip").count());
+    }
+
+    @Test
+    void emailBucketIsSharedAcrossAddressesAndCase() {
+        long now = 0;
+        limiter.acquire("10.0.0.1", "victim@gmail.com", now);
+        limiter.acquire("10.0.0.2", "Victim@Gmail.com", now);
+        assertRejected("10.0.0.3", "victim@gmail.com", now);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.3", "victim@gmail.com", now + 10 * SECOND));
+        assertEquals(1, meterRegistry.counter("login.rate.limited", "reason", "email").count());
+    }
+
+    @Test
+    void lockoutDoublesWithEachFailureAndResetsOnSuccess() {
+        long now = 0;
+        limiter.onFailure("user@gmail.com", now);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "user@gmail.com", now));
+        limiter.onFailure("user@gmail.com", now);
+        assertRejected("10.0.0.1", "user@gmail.com", now + 29 * SECOND);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "user@gmail.com", now + 30 * SECOND));
+
+        limiter.onFailure("user@gmail.com", now + 30 * SECOND);
+        assertRejected("10.0.0.1", "user@gmail.com", now + 89 * SECOND);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "user@gmail.com", now + 90 * SECOND));
+
+        limiter.onSuccess("user@gmail.com");
+        limiter.onFailure("user@gmail.com", now + 90 * SECOND);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "user@gmail.com", now + 100 * SECOND));
+        assertEquals(2, meterRegistry.counter("login.rate.limited", "reason", "lockout").count());
+    }
+
+    @Test
+    void lockoutStaysAtMaximumAfterManyFailures() {
+        long now = 0;
+        for (int i = 0; i < 45; i++) {
+            limiter.onFailure("user@gmail.com", now);
+        }
+        assertRejected("10.0.0.1", "user@gmail.com", now + 119 * SECOND);
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "user@gmail.com", now + 120 * SECOND));
+    }
+
+    @Test
+    void lockoutDoublingsStopAtMaximumWithoutOverflow() {
+        long base = Duration.ofSeconds(30).toNanos();
+        long max = Duration.ofMinutes(15).toNanos();
+        int doublings = LoginRateLimiter.lockoutDoublings(base, max);
+        assertEquals(5, doublings);
+        assertEquals(62, LoginRateLimiter.lockoutDoublings(1, Long.MAX_VALUE));
+        assertTrue((1L << LoginRateLimiter.lockoutDoublings(1, Long.MAX_VALUE)) > 0);
+    }
+
+    private void assertRejected(String clientIp, String email, long now) {
+        ApplicationException ex = assertThrows(ApplicationException.class, () -> limiter.acquire(clientIp, email, now));
+        assertEquals(TOO_MANY_REQUESTS, ex.getStatus());
+    }
+}
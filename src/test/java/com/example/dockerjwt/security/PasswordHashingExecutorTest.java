@@ -0,0 +1,61 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdown();
+    }
+
+    @Test
+    void executeReturnsResult() {
+        assertEquals("hash", executor.execute(() -> "hash"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").timer().count());
+    }
+
+    @Test
+    void rejectsWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> "second"));
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        ApplicationException ex = assertThrows(ApplicationException.class, () -> executor.execute(() -> "third"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.dockerjwt.security;
+
+import com.example.dockerjwt.validation.exceptions.ApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    public static final UUID USER_1_UUID = UUID.randomUUID();
+
+    @Mock
+    private JpaRefreshTokenRepository repository;
+
+    private RefreshTokenService refreshTokenService;
+    private String issued;
+
+    @BeforeEach
+    void beforeEach() {
+        refreshTokenService = new RefreshTokenService(repository, 60L);
+    }
+
+    @Test
+    void rotateIssuesTokenInSameFamily() {
+        RefreshToken stored = issueAndCapture();
+        when(repository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(any(), any(Instant.class))).thenReturn(1);
+        IssuedRefreshToken rotated = refreshTokenService.rotate(issued);
+        assertEquals(USER_1_UUID, rotated.getUserId());
+        assertNotEquals(issued, rotated.getValue());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository, times(2)).save(saved.capture());
+        assertEquals(stored.getFamilyId(), saved.getValue().getFamilyId());
+    }
+
+    @Test
+    void reuseRevokesFamily() {
+        RefreshToken stored = issueAndCapture();
+        when(repository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(any(), any(Instant.class))).thenReturn(0);
+        assertThrows(ApplicationException.class, () -> refreshTokenService.rotate(issued));
+        verify(repository).revokeFamily(stored.getFamilyId());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+        assertThrows(ApplicationException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(repository, never()).revokeFamily(any(UUID.class));
+    }
+
+    private RefreshToken issueAndCapture() {
+        issued = refreshTokenService.issue(USER_1_UUID);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(saved.capture());
+        return saved.getValue();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.dockerjwt.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SigningKeyRingTest {
+    private static final String SECRET = "secret";
+    private static final Duration ROTATION = Duration.ofDays(1);
+
+    @Test
+    void jwksPublishesActiveAndSupersededKeys() {
+        SigningKeyRing keyRing = ring(SigningKeyRing.ES256, SECRET, new InMemorySigningKeyStore());
+        String oldKid = keyRing.getPrivateKeyId();
+        SigningKeyRing.Jwks before = keyRing.getJwks();
+        assertTrue(before.getJson().contains("\"kid\":\"" + oldKid + "\""));
+
+        keyRing.refresh(nextRotation().plusSeconds(60));
+        SigningKeyRing.Jwks after = keyRing.getJwks();
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertNotEquals(oldKid, keyRing.getPrivateKeyId());
+        assertTrue(after.getJson().contains("\"kid\":\"" + oldKid + "\""));
+        assertTrue(after.getJson().contains("\"kid\":\"" + keyRing.getPrivateKeyId() + "\""));
+        assertTrue(after.getJson().contains("\"crv\":\"P-256\""));
+    }
+
+    @Test
+    void nextKeyIsPublishedBeforeItSigns() {
+        SigningKeyRing keyRing = ring(SigningKeyRing.ES256, SECRET, new InMemorySigningKeyStore());
+        String published = keyRing.getJwks().getJson();
+        assertEquals(2, published.split("\"kid\"").length - 1);
+
+        keyRing.refresh(nextRotation().plusSeconds(60));
+        String activeKid = keyRing.getPrivateKeyId();
+        assertTrue(published.contains("\"kid\":\"" + activeKid + "\""));
+        assertEquals(3, keyRing.getJwks().getJson().split("\"kid\"").length - 1);
+    }
+
+    @Test
+    void replicasSharingAStoreSignWithAndPublishTheSameKeys() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        SigningKeyRing first = ring(SigningKeyRing.ES256, SECRET, store);
+        SigningKeyRing second = ring(SigningKeyRing.ES256, SECRET, store);
+        assertEquals(first.getPrivateKeyId(), second.getPrivateKeyId());
+        assertEquals(first.getJwks().getEtag(), second.getJwks().getEtag());
+        assertEquals(2, store.size());
+
+        Instant tomorrow = nextRotation().plusSeconds(60);
+        first.refresh(tomorrow);
+        second.refresh(tomorrow);
+        assertEquals(first.getPrivateKeyId(), second.getPrivateKeyId());
+        assertEquals(first.getJwks().getJson(), second.getJwks().getJson());
+    }
+
+    @Test
+    void supersededKeysAreDeletedOnceTheOverlapEnds() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        SigningKeyRing keyRing = ring(SigningKeyRing.ES256, SECRET, store);
+        String oldKid = keyRing.getPrivateKeyId();
+
+        keyRing.refresh(nextRotation().plus(Duration.ofMinutes(16)));
+        assertEquals(2, store.size());
+        assertFalse(keyRing.getJwks().getJson().contains("\"kid\":\"" + oldKid + "\""));
+        assertNull(keyRing.getPublicKeyById(oldKid));
+    }
+
+    @Test
+    void keysStoredWithAnotherSecretAreRejected() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        ring(SigningKeyRing.ES256, SECRET, store);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> ring(SigningKeyRing.ES256, "other_secret", store));
+        assertTrue(e.getMessage().contains("different jwt.secret"));
+    }
+
+    @Test
+    void hmacModePublishesNoKeys() {
+        InMemorySigningKeyStore store = new InMemorySigningKeyStore();
+        SigningKeyRing keyRing = ring(SigningKeyRing.HS256, SECRET, store);
+        keyRing.refresh();
+        assertEquals("{\"keys\":[]}", keyRing.getJwks().getJson());
+        assertEquals(0, store.size());
+    }
+
+    // Activation times are aligned to the rotation interval, so the next key starts signing at the next boundary
+    static Instant nextRotation() {
+        long millis = ROTATION.toMillis();
+        return Instant.ofEpochMilli((Math.floorDiv(Instant.now().toEpochMilli(), millis) + 1) * millis);
+    }
+
+    private static SigningKeyRing ring(String algorithm, String secret, SigningKeyStore store) {
+        return new SigningKeyRing(algorithm, secret, ROTATION, Duration.ofMinutes(15), 15L, store);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.dockerjwt.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VerifiedTokenCacheTest {
+
+    public static final String TOKEN = "header.payload.signature";
+    public static final UUID USER_1_UUID = UUID.randomUUID();
+
+    @Test
+    void returnsClaimsUntilExpiry() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(16, new SimpleMeterRegistry());
+        TokenClaims claims = claims(System.currentTimeMillis() + 60_000);
+        cache.put(TOKEN, claims);
+        assertSame(claims, cache.get(TOKEN));
+        assertNull(cache.get(TOKEN + "x"));
+    }
+
+    @Test
+    void ignoresExpiredEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(16, new SimpleMeterRegistry());
+        cache.put(TOKEN, claims(System.currentTimeMillis() - 1));
+        assertNull(cache.get(TOKEN));
+    }
+
+    @Test
+    void disabledWhenSizeIsZero() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0, new SimpleMeterRegistry());
+        cache.put(TOKEN, claims(System.currentTimeMillis() + 60_000));
+        assertNull(cache.get(TOKEN));
+    }
+
+    @Test
+    void clearDropsEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(16, new SimpleMeterRegistry());
+        cache.put(TOKEN, claims(System.currentTimeMillis() + 60_000));
+        cache.clear();
+        assertNull(cache.get(TOKEN));
+    }
+
+    private static TokenClaims claims(long expiresAt) {
+        return new TokenClaims("token-id", USER_1_UUID, "admin@gmail.com", "ROLE_USER", 0, expiresAt);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.dockerjwt.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightUserRepositoryTest {
+
+    public static final UUID USER_1_UUID = UUID.randomUUID();
+    public static final User USER_1 = new User(USER_1_UUID, "admin@gmail.com", "password", "ROLE_USER");
+    private static final int CALLERS = 8;
+
+    @Mock
+    private UserRepositoryImpl delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SingleFlightUserRepository repository;
+
+    @BeforeEach
+    void beforeEach() {
+        repository = new SingleFlightUserRepository(delegate, meterRegistry);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getUser(USER_1_UUID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(USER_1);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Optional<User>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> repository.getUser(USER_1_UUID)));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> repository.getUser(USER_1_UUID)));
+            }
+            while (collapsed() < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            Set<User> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<Optional<User>> result : results) {
+                User user = result.get(5, TimeUnit.SECONDS).orElseThrow();
+                assertEquals(USER_1_UUID, user.getId());
+                assertEquals(USER_1.getPassword(), user.getPassword());
+                instances.add(user);
+            }
+            assertSame(USER_1, results.get(0).get().orElseThrow());
+            assertEquals(CALLERS, instances.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(delegate, times(1)).getUser(USER_1_UUID);
+    }
+
+    @Test
+    void sequentialCallsLoadAgain() {
+        when(delegate.getUser(USER_1_UUID)).thenReturn(Optional.of(USER_1));
+        repository.getUser(USER_1_UUID);
+        repository.getUser(USER_1_UUID);
+        verify(delegate, times(2)).getUser(USER_1_UUID);
+        assertEquals(0, collapsed());
+    }
+
+    @Test
+    void failuresPropagateAndAreNotRemembered() {
+        when(delegate.getUserByEmail("admin@gmail.com"))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(Optional.of(USER_1));
+        assertThrows(IllegalStateException.class, () -> repository.getUserByEmail("admin@gmail.com"));
+        assertSame(USER_1, repository.getUserByEmail("admin@gmail.com").orElseThrow());
+    }
+
+    private double collapsed() {
+        return meterRegistry.counter("user.repository.loads", "key", "id", "result", "collapsed").count();
+    }
+}
@@ -42,7 +42,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
     private SecurityUser principal;
 
     public static final String VALID_TOKEN = "valid_token";
-    public static final String USER_1_UUID = String.valueOf(UUID.randomUUID());
+    public static final UUID USER_1_UUID = UUID.randomUUID();
 
     @BeforeEach
     public void beforeEach() {
@@ -60,6 +60,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         passwordDto.setOldPassword("old_password");
         passwordDto.setNewPassword("new_password");
         JWTToken token = new JWTToken(USER_1_UUID, VALID_TOKEN);
+        User fresh = new User(USER_1_UUID, "user@gmail.com", "hash", UserRole.ROLE_USER.name());
+        when(principal.getId()).thenReturn(USER_1_UUID);
+        when(userService.getCurrentUserInfo(USER_1_UUID)).thenReturn(fresh);
         when(userService.checkIfValidOldPassword(any(), Mockito.anyString())).thenReturn(true);
         when(userService.changeUserPassword(any(), Mockito.anyString())).thenReturn(token);
         perform(patch(REST_URL + "me")
@@ -68,6 +71,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 .andExpect(status().isOk())
                 .andDo(print())
                 .andExpect(jsonPath("$.access_token").value(VALID_TOKEN));
+        // The cached principal is never the object that gets checked and changed
+        Mockito.verify(userService).checkIfValidOldPassword(fresh, "old_password");
+        Mockito.verify(userService).changeUserPassword(fresh, "new_password");
     }
 
      @Test
@@ -7,8 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 
 import javax.validation.ConstraintViolation;
@@ -18,6 +17,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -29,8 +30,6 @@ class UserControllerTest extends AbstractControllerTest {
     private static final String REST_URL = UserController.REST_URL + '/';
     @MockBean
     private UserService userService;
-    @MockBean
-    private AuthenticationManager authenticationManager;
 
     @Autowired
     private Validator validator;
@@ -38,7 +37,7 @@ class UserControllerTest extends AbstractControllerTest {
     public static final String USER_1_MAIL = "admin@gmail.com";
     public static final String USER_PASSWORD = "password";
     public static final String VALID_TOKEN = "valid_token";
-    public static final String USER_1_UUID = String.valueOf(UUID.randomUUID());
+    public static final UUID USER_1_UUID = UUID.randomUUID();
 
     @Test
     @WithAnonymousUser
@@ -107,8 +106,7 @@ class UserControllerTest extends AbstractControllerTest {
         request.setEmail(USER_1_MAIL);
         request.setPassword(USER_PASSWORD);
         request.setRole(UserRole.ROLE_USER.toString());
-        JWTToken token = new JWTToken(request.getEmail(), VALID_TOKEN);
-        when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(null);
+        JWTToken token = new JWTToken(USER_1_UUID, VALID_TOKEN);
         when(userService.login(any(LoginRequest.class))).thenReturn(token);
         perform(post(REST_URL + "login")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -118,6 +116,24 @@ class UserControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.access_token").value(VALID_TOKEN));
     }
 
+    @Test
+    @WithAnonymousUser
+    void repeatedLoginIsThrottledBeforePasswordCheck() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("throttled@gmail.com");
+        request.setPassword(USER_PASSWORD);
+        request.setRole(UserRole.ROLE_USER.toString());
+        when(userService.login(any(LoginRequest.class))).thenThrow(new BadCredentialsException("Wrong credentials"));
+        String body = mapper.writeValueAsString(request);
+        for (int i = 0; i < 5; i++) {
+            perform(post(REST_URL + "login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+        perform(post(REST_URL + "login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests());
+        verify(userService, times(5)).login(any(LoginRequest.class));
+    }
+
     @Test
     @WithAnonymousUser
     void getUnAuth() throws Exception {
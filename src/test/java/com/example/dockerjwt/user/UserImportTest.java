@@ -0,0 +1,114 @@
+package com.example.dockerjwt.user;
+
+import com.example.dockerjwt.AbstractControllerTest;
+import com.example.dockerjwt.user.dto.ImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserImportTest extends AbstractControllerTest {
+    private static final String IMPORT_URL = UserController.REST_URL + "/import";
+
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void importsNdjsonWithOneResultPerRow() throws Exception {
+        String created = "import-" + UUID.randomUUID() + "@gmail.com";
+        String existing = "import-" + UUID.randomUUID() + "@gmail.com";
+        jpaUserRepository.saveAndFlush(new User(existing, "hash", UserRole.ROLE_USER.name()));
+        String body = row(created, "password1", "ROLE_USER") + "\n"
+                + row("not-an-email", "password1", "ROLE_USER") + "\n"
+                + "\n"
+                + row(created.toUpperCase(), "password2", "ROLE_ADMIN") + "\n"
+                + row(existing, "password3", "ROLE_USER") + "\n"
+                + row("role-" + created, "password4", "ROLE_ROOT") + "\n"
+                + "{broken\n";
+
+        List<ImportResult> results = importUsers(UserController.NDJSON, body);
+
+        assertEquals(6, results.size());
+        assertResult(results.get(0), 1, ImportResult.Status.CREATED);
+        assertNotNull(results.get(0).getId());
+        assertResult(results.get(1), 2, ImportResult.Status.INVALID);
+        assertEquals("Email should be in right format", results.get(1).getError());
+        assertResult(results.get(2), 4, ImportResult.Status.EXISTS);
+        assertNull(results.get(2).getId());
+        assertResult(results.get(3), 5, ImportResult.Status.EXISTS);
+        assertResult(results.get(4), 6, ImportResult.Status.INVALID);
+        assertEquals("Not found role", results.get(4).getError());
+        assertResult(results.get(5), 7, ImportResult.Status.INVALID);
+        assertTrue(passwordEncoder.matches("password1", storedPassword(created)));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void importsCsvWithCommasInPasswords() throws Exception {
+        String email = "import-" + UUID.randomUUID() + "@gmail.com";
+        String body = "email,password,role\n"
+                + email + ",pass,word,1,ROLE_USER\n"
+                + "missing-role@gmail.com,password1\n";
+
+        List<ImportResult> results = importUsers(UserController.CSV, body);
+
+        assertEquals(2, results.size());
+        assertResult(results.get(0), 2, ImportResult.Status.CREATED);
+        assertEquals(email, results.get(0).getEmail());
+        assertResult(results.get(1), 3, ImportResult.Status.INVALID);
+        assertTrue(passwordEncoder.matches("pass,word,1", storedPassword(email)));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void forbiddenForNonAdmins() throws Exception {
+        perform(post(IMPORT_URL)
+                .contentType(UserController.NDJSON)
+                .content(row("someone@gmail.com", "password1", "ROLE_USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<ImportResult> importUsers(String contentType, String body) throws Exception {
+        String response = perform(post(IMPORT_URL)
+                .contentType(contentType)
+                .accept(UserController.NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ImportResult> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            results.add(mapper.readValue(line, ImportResult.class));
+        }
+        return results;
+    }
+
+    private String storedPassword(String email) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = ?", String.class, email);
+    }
+
+    private static String row(String email, String password, String role) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\",\"role\":\"" + role + "\"}";
+    }
+
+    private static void assertResult(ImportResult result, int line, ImportResult.Status status) {
+        assertEquals(line, result.getLine());
+        assertEquals(status, result.getStatus());
+    }
+}
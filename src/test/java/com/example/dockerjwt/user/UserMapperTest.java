@@ -0,0 +1,41 @@
+package com.example.dockerjwt.user;
+
+import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.user.dto.LoginRequest;
+import com.example.dockerjwt.user.dto.UserTo;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserMapperTest {
+
+    private static final UUID USER_ID = UUID.fromString("0184b7a8-4c1e-7d2a-9f3b-2c4d5e6f7a8b");
+
+    @Test
+    void userToExposesIdAsStringAndNoPassword() {
+        UserTo userTo = UserMapper.toUserTo(new User(USER_ID, "admin@gmail.com", "password", "ROLE_USER"));
+        assertEquals("admin@gmail.com", userTo.getEmail());
+        assertEquals(USER_ID.toString(), userTo.getId());
+        assertNull(UserMapper.toUserTo(new User("new@gmail.com", "password", "ROLE_USER")).getId());
+    }
+
+    @Test
+    void loginRequestAndTokenMapFieldByField() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("admin@gmail.com");
+        loginRequest.setPassword("plain-password");
+        loginRequest.setRole("ROLE_USER");
+        User user = UserMapper.toUser(loginRequest, "encoded");
+        assertNull(user.getId());
+        assertEquals("admin@gmail.com", user.getEmail());
+        assertEquals("encoded", user.getPassword());
+        assertEquals("ROLE_USER", user.getRole());
+
+        user.setId(USER_ID);
+        JWTToken token = UserMapper.toJWTToken(user, "access", "refresh");
+        assertEquals(new JWTToken(USER_ID, "access", "refresh"), token);
+    }
+}
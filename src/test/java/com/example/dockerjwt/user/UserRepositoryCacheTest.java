@@ -0,0 +1,116 @@
+package com.example.dockerjwt.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void beforeEach() {
+        user = userRepository.addUser(new User("cache-" + UUID.randomUUID() + "@gmail.com", "password", "ROLE_USER"))
+                .orElseThrow();
+    }
+
+    @AfterEach
+    void afterEach() {
+        jpaUserRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void lookupsByIdAreServedFromSecondLevelCache() {
+        userRepository.getUser(user.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            assertEquals(user.getEmail(), userRepository.getUser(user.getId()).orElseThrow().getEmail());
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    // Another instance may have changed the password; its write never reaches this instance's cache
+    @Test
+    void credentialLookupsReadTheDatabase() {
+        userRepository.getUser(user.getId());
+        jdbcTemplate.update("UPDATE users SET password = 'changed' WHERE id = ?", user.getId());
+
+        assertEquals("password", userRepository.getUser(user.getId()).orElseThrow().getPassword());
+        assertEquals("changed", userRepository.getUserByEmail(user.getEmail()).orElseThrow().getPassword());
+        assertEquals("changed", userRepository.getCurrentUser(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void replacePasswordOnlyReplacesTheVerifiedHash() {
+        userRepository.getUser(user.getId());
+
+        assertFalse(userRepository.replacePassword(user.getId(), "changed", "rehashed"));
+        assertTrue(userRepository.replacePassword(user.getId(), "password", "rehashed"));
+        assertEquals("rehashed", userRepository.getUser(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void writeBasedOnStaleReadFails() {
+        User first = userRepository.getCurrentUser(user.getId()).orElseThrow();
+        User second = userRepository.getCurrentUser(user.getId()).orElseThrow();
+        first.setPassword("changed");
+        first.revokeTokens();
+        userRepository.saveUser(first);
+
+        second.setPassword("stale");
+        assertThrows(OptimisticLockingFailureException.class, () -> userRepository.saveUser(second));
+        User current = userRepository.getCurrentUser(user.getId()).orElseThrow();
+        assertEquals("changed", current.getPassword());
+        assertEquals(1, current.getTokenVersion());
+    }
+
+    @Test
+    void emailLookupIgnoresCase() {
+        assertEquals(user.getId(), userRepository.getUserByEmail(user.getEmail().toUpperCase(Locale.ROOT))
+                .orElseThrow().getId());
+        User duplicate = new User(user.getEmail().toUpperCase(Locale.ROOT), "password", "ROLE_USER");
+        assertTrue(userRepository.addUser(duplicate).isEmpty());
+    }
+
+    @Test
+    void idsAreTimeOrdered() {
+        User next = userRepository.addUser(new User("cache-" + UUID.randomUUID() + "@gmail.com", "password", "ROLE_USER"))
+                .orElseThrow();
+        try {
+            assertEquals(7, next.getId().version());
+            assertTrue(next.getId().getMostSignificantBits() >>> 16 >= user.getId().getMostSignificantBits() >>> 16);
+        } finally {
+            jpaUserRepository.deleteById(next.getId());
+        }
+    }
+}
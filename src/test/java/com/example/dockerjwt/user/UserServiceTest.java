@@ -1,21 +1,29 @@
 package com.example.dockerjwt.user;
 
 import com.example.dockerjwt.security.JWTToken;
+import com.example.dockerjwt.security.IssuedRefreshToken;
 import com.example.dockerjwt.security.JWTUtil;
+import com.example.dockerjwt.security.RefreshTokenService;
+import com.example.dockerjwt.security.RevokedTokenStore;
 import com.example.dockerjwt.user.dto.LoginRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,13 +37,20 @@ class UserServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private JWTUtil jwtUtil;
+    @Mock
+    private PasswordRehasher passwordRehasher;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private RevokedTokenStore revokedTokens;
 
     public static final String USER_1_MAIL = "admin@gmail.com";
     public static final String USER_2_MAIL = "user@gmail.com";
     public static final String USER_PASSWORD = "password";
     public static final String VALID_TOKEN = "valid_token";
-    public static final String USER_1_UUID = String.valueOf(UUID.randomUUID());
-    public static final String USER_2_UUID = String.valueOf(UUID.randomUUID());
+    public static final String REFRESH_TOKEN = "refresh_token";
+    public static final UUID USER_1_UUID = UUID.randomUUID();
+    public static final UUID USER_2_UUID = UUID.randomUUID();
     public static final User USER_2 = new User(USER_2_UUID, USER_2_MAIL, USER_PASSWORD, "ROLE_USER");
     public static final User USER_2_CHANGED_PASSWORD = new User(USER_2_UUID, USER_2_MAIL, "new_password", "ROLE_USER");
 
@@ -47,7 +62,7 @@ class UserServiceTest {
         loginRequest.setPassword(USER_PASSWORD);
         User user = new User(loginRequest.getEmail(), loginRequest.getPassword(), UserRole.ROLE_USER.toString());
         user.setId(USER_1_UUID);
-        when(jwtUtil.generateToken(Mockito.anyString())).thenReturn(VALID_TOKEN);
+        when(jwtUtil.generateToken(any(User.class))).thenReturn(VALID_TOKEN);
         when(userRepository.addUser(any(User.class))).thenReturn(Optional.of(user));
         JWTToken result = userService.signup(loginRequest);
         assertEquals(USER_1_UUID, result.getUserId());
@@ -62,19 +77,59 @@ class UserServiceTest {
         loginRequest.setRole(UserRole.ROLE_USER.toString());
         User user = new User(loginRequest.getEmail(), loginRequest.getPassword(), UserRole.ROLE_USER.toString());
         user.setId(USER_1_UUID);
-        when(jwtUtil.generateToken(Mockito.anyString())).thenReturn(VALID_TOKEN);
+        when(jwtUtil.generateToken(any(User.class))).thenReturn(VALID_TOKEN);
         when(userRepository.getUserByEmail(USER_1_MAIL)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(USER_PASSWORD, USER_PASSWORD)).thenReturn(true);
         JWTToken result = userService.login(loginRequest);
         assertEquals(USER_1_UUID, result.getUserId());
         assertEquals(VALID_TOKEN, result.getAccessToken());
+        verify(userRepository, times(1)).getUserByEmail(USER_1_MAIL);
+        verify(jwtUtil).generateToken(user);
+    }
+
+    @Test
+    void loginWithWrongPassword() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(USER_2_MAIL);
+        loginRequest.setPassword("wrong");
+        when(userRepository.getUserByEmail(USER_2_MAIL)).thenReturn(Optional.of(USER_2));
+        when(passwordEncoder.matches("wrong", USER_PASSWORD)).thenReturn(false);
+        assertThrows(BadCredentialsException.class, () -> userService.login(loginRequest));
+        verify(jwtUtil, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    void loginWithUnknownEmailStillChecksAPassword() {
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy_hash");
+        UserService service = new UserService(userRepository, passwordEncoder, jwtUtil, passwordRehasher,
+                refreshTokenService, revokedTokens);
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("unknown@gmail.com");
+        loginRequest.setPassword(USER_PASSWORD);
+        when(userRepository.getUserByEmail("unknown@gmail.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.matches(USER_PASSWORD, "dummy_hash")).thenReturn(true);
+        assertThrows(BadCredentialsException.class, () -> service.login(loginRequest));
+        verify(passwordEncoder).matches(USER_PASSWORD, "dummy_hash");
     }
 
     @Test
     void changeUserPassword() {
-        when(jwtUtil.generateToken(Mockito.anyString())).thenReturn(VALID_TOKEN);
+        when(jwtUtil.generateToken(any(User.class))).thenReturn(VALID_TOKEN);
         when(userRepository.saveUser(any(User.class))).thenReturn(USER_2_CHANGED_PASSWORD);
         JWTToken result = userService.changeUserPassword(USER_2, "new_password");
         assertEquals(USER_2_UUID, result.getUserId());
         assertEquals(VALID_TOKEN, result.getAccessToken());
+        verify(refreshTokenService).revokeAll(USER_2_UUID);
+    }
+
+    @Test
+    void refreshToken() {
+        when(refreshTokenService.rotate(REFRESH_TOKEN)).thenReturn(new IssuedRefreshToken(USER_2_UUID, "rotated"));
+        when(userRepository.getUser(USER_2_UUID)).thenReturn(Optional.of(USER_2));
+        when(jwtUtil.generateToken(USER_2)).thenReturn(VALID_TOKEN);
+        JWTToken result = userService.refresh(REFRESH_TOKEN);
+        assertEquals(USER_2_UUID, result.getUserId());
+        assertEquals(VALID_TOKEN, result.getAccessToken());
+        assertEquals("rotated", result.getRefreshToken());
     }
 }